@@ -0,0 +1,187 @@
+// Import for posting to the attendance server
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Sends check-ins from the Swing app to a shared AttendanceServer
+ * (enabled with -Dattendance.server=http://host:port).
+ *
+ * Requests are sent asynchronously; the completion is called on the EDT,
+ * just like AttendancePipeline completions, with the record as the server
+ * saved it (the server signs it) or the error.
+ */
+public final class AttendanceClient {
+
+    /** Reported when the server answers 503 because its queue is full. */
+    public static final class BusyException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BusyException(String message) {
+            super(message);
+        }
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    private final HttpClient http;
+    private final URI attendanceUri;
+
+    public AttendanceClient(URI server) {
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.attendanceUri = server.resolve("/api/attendance");
+    }
+
+    /**
+     * Returns a client for -Dattendance.server, or null when the app should save locally.
+     */
+    public static AttendanceClient fromSystemProperties() {
+        String server = System.getProperty("attendance.server");
+        return server == null || server.trim().isEmpty() ? null : new AttendanceClient(URI.create(server.trim()));
+    }
+
+    /**
+     * Posts one check-in. Never blocks; completion runs on the EDT.
+     * The password may be null when the server doesn't require logins.
+     * The server stamps the Time In with its own clock (the saved record
+     * passed to completion has it); timeInMillis is only used for the
+     * record reported when the post fails.
+     */
+    public void submit(String name, String courseYear, long timeInMillis, char[] password,
+                       AttendancePipeline.Completion completion) {
+        AttendanceRecord unsigned = new AttendanceRecord(name, courseYear, timeInMillis, 0, 0);
+        String form = "name=" + encode(name) + "&courseYear=" + encode(courseYear);
+        if (password != null) {
+            form += "&password=" + encode(new String(password));
+        }
+        HttpRequest request = HttpRequest.newBuilder(attendanceUri)
+            .timeout(TIMEOUT)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+        http.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+            .whenComplete((response, failure) -> {
+                AttendanceRecord saved = null;
+                Throwable error = failure;
+                if (failure == null && response.statusCode() == 409) {
+                    // Already checked in: shown like the local pipeline's repeat check
+                    String message = jsonValue(response.body(), "error");
+                    error = new DuplicateFilter.DuplicateException(message != null ? message : "Already checked in.");
+                } else if (failure == null) {
+                    try {
+                        saved = parseResponse(name, courseYear, response);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+                AttendanceRecord result = saved != null ? saved : unsigned;
+                Throwable reported = error;
+                Metrics.invokeLater(() -> completion.done(result, reported));
+            });
+    }
+
+    // Turns the server's JSON answer into the saved record, or an exception with its error text
+    private static AttendanceRecord parseResponse(String name, String courseYear, HttpResponse<String> response)
+            throws IOException {
+        String body = response.body();
+        if (response.statusCode() == 503) {
+            throw new BusyException(jsonValue(body, "error"));
+        }
+        if (response.statusCode() != 201) {
+            String message = jsonValue(body, "error");
+            throw new IOException(message != null ? message : "Server answered " + response.statusCode());
+        }
+        String timeIn = jsonValue(body, "timeInMillis");
+        String signature = jsonValue(body, "eSignature");
+        if (timeIn == null || signature == null) {
+            throw new IOException("Unexpected server response");
+        }
+        return new AttendanceRecord(name, courseYear, Long.parseLong(timeIn), UUID.fromString(signature));
+    }
+
+    // Value of a top-level number or string field (enough for the fields read above).
+    // Strings are unescaped, the reverse of AttendanceServer.appendString().
+    private static String jsonValue(String json, String key) {
+        String marker = "\"" + key + "\":";
+        int start = json.indexOf(marker);
+        if (start < 0) {
+            return null;
+        }
+        start += marker.length();
+        if (start < json.length() && json.charAt(start) == '"') {
+            return jsonString(json, start + 1);
+        }
+        int end = start;
+        while (end < json.length() && json.charAt(end) != ',' && json.charAt(end) != '}') {
+            end++;
+        }
+        return json.substring(start, end);
+    }
+
+    // Reads a JSON string starting after its opening quote; null if it is cut off or malformed
+    private static String jsonString(String json, int start) {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            if (++i == json.length()) {
+                return null;
+            }
+            switch (json.charAt(i)) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append(json.charAt(i));
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= json.length()) {
+                        return null;
+                    }
+                    try {
+                        text.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
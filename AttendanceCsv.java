@@ -0,0 +1,129 @@
+// Import for file I/O
+import java.io.IOException;
+import java.nio.file.Path;
+// Import for parsing Time In text when no millis column is given
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Bulk import and export of attendance records as CSV.
+ *
+ * Columns: name,course_year,time_in,time_in_millis,e_signature
+ * - time_in is "yyyy-MM-dd HH:mm:ss" for people to read
+ * - time_in_millis is the exact value; on import it wins when present,
+ *   otherwise time_in is parsed in the system time zone
+ * - a missing e_signature is generated on import
+ *
+ * Both directions stream: export reads the journal segment by segment and
+ * writes through a CsvChunkWriter; import reads through a CsvChunkReader and
+ * appends to the journal. Memory stays constant for any file size.
+ */
+public final class AttendanceCsv {
+
+    public static final String HEADER = "name,course_year,time_in,time_in_millis,e_signature";
+
+    // Rows appended between group commits during import
+    private static final int COMMIT_EVERY = 65536;
+
+    private static final int NAME = 0;
+    private static final int COURSE = 1;
+    private static final int TIME_IN = 2;
+    private static final int TIME_IN_MILLIS = 3;
+    private static final int E_SIGNATURE = 4;
+
+    private AttendanceCsv() {
+    }
+
+    /**
+     * Writes every record in the journal to a CSV file. Returns the number of records.
+     */
+    public static long export(AttendanceJournal journal, Path output) throws IOException {
+        TimeInClock clock = TimeInClock.system();
+        long[] count = { 0 };
+        try (CsvChunkWriter writer = new CsvChunkWriter(output)) {
+            for (String column : HEADER.split(",")) {
+                writer.text(column);
+            }
+            writer.endRow();
+            IOException[] failure = { null };
+            journal.replay(record -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    writer.text(record.getName())
+                        .text(record.getCourseYear())
+                        .timeIn(record.getTimeInMillis(), clock)
+                        .number(record.getTimeInMillis())
+                        .signature(record.getSignatureMsb(), record.getSignatureLsb())
+                        .endRow();
+                    count[0]++;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * Appends every row of a CSV file to the journal and commits it.
+     * Rows with an empty name or course/year are rejected, like in the form.
+     * Returns the number of records imported.
+     */
+    public static long importInto(AttendanceJournal journal, Path input, ESignatureGenerator signatures)
+            throws IOException, InterruptedException {
+        DateTimeFormatter timeInFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        ZoneId zone = ZoneId.systemDefault();
+        long count = 0;
+        try (CsvChunkReader reader = new CsvChunkReader(input)) {
+            while (reader.next()) {
+                if (reader.rowNumber() == 1 && reader.fieldEqualsIgnoreCase(NAME, "name")) {
+                    continue; // Header
+                }
+                if (reader.fieldCount() < 3) {
+                    throw new IOException("Row " + reader.rowNumber() + ": expected at least name,course_year,time_in");
+                }
+                String name = reader.string(NAME).trim();
+                String courseYear = reader.string(COURSE).trim();
+                String problem = AttendanceRecord.validate(name, courseYear);
+                if (problem != null) {
+                    throw new IOException("Row " + reader.rowNumber() + ": " + problem);
+                }
+
+                long timeIn;
+                if (reader.fieldCount() > TIME_IN_MILLIS && !reader.isEmpty(TIME_IN_MILLIS)) {
+                    timeIn = reader.parseLong(TIME_IN_MILLIS);
+                } else {
+                    try {
+                        timeIn = LocalDateTime.parse(reader.string(TIME_IN).trim(), timeInFormat)
+                            .atZone(zone).toInstant().toEpochMilli();
+                    } catch (DateTimeParseException e) {
+                        throw new IOException("Row " + reader.rowNumber() + ": time_in must be yyyy-MM-dd HH:mm:ss");
+                    }
+                }
+
+                AttendanceRecord record;
+                if (reader.fieldCount() > E_SIGNATURE && !reader.isEmpty(E_SIGNATURE)) {
+                    record = new AttendanceRecord(name, courseYear, timeIn,
+                        reader.parseUuidMsb(E_SIGNATURE), reader.parseUuidLsb(E_SIGNATURE));
+                } else {
+                    record = new AttendanceRecord(name, courseYear, timeIn, signatures.next(name, courseYear, timeIn));
+                }
+                journal.append(record);
+                if (++count % COMMIT_EVERY == 0) {
+                    journal.commit();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        journal.commit();
+        return count;
+    }
+}
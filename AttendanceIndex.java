@@ -0,0 +1,524 @@
+// Import for the dictionary and locking
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, column-oriented store of attendance records with indexes for
+ * fast queries such as "who from BSIT-2 checked in between 07:30 and 08:00".
+ *
+ * Each row is one record, kept in parallel primitive arrays (no object per row):
+ * - Course/Year is dictionary-encoded: each distinct course gets an int code
+ * - Time In is indexed by a row order sorted on time, with the times copied
+ *   into a sorted long[] so range lookups are two binary searches
+ * - Name is indexed by a row order sorted on the name ignoring case and surrounding
+ *   spaces, for prefix search. Names are compared in place character by character
+ *   (folded like String.compareToIgnoreCase), so each row keeps one String: the
+ *   name as entered.
+ *
+ * Rows are only ever appended. Records usually arrive in time order, so new
+ * rows are added to the end of each index directly. Out-of-order rows are
+ * inserted into a small sorted run of fixed capacity; once it is full the
+ * writer merges it into a second, larger run, which is merged into the main
+ * one once it grows past a quarter of it. Queries binary search all three and
+ * only read (they never sort or merge), so a query costs the same however
+ * many rows arrived out of order, and adding never re-sorts the whole index.
+ *
+ * Safe for one writer and many readers at the same time.
+ */
+public final class AttendanceIndex {
+
+    /** Called for each matching row; return false to stop the scan. */
+    public interface RowVisitor {
+        boolean visit(int row);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ===== Columns (row i of each array is record i) =====
+    private String[] names = new String[1024];
+    private int[] courseCodes = new int[1024];
+    private long[] timeIns = new long[1024];
+    private long[] signatureMsbs = new long[1024];
+    private long[] signatureLsbs = new long[1024];
+    private int size;
+
+    // ===== Course/Year dictionary =====
+    private final Map<String, Integer> courseCodeByKey = new HashMap<>();
+    private final List<String> courseNames = new ArrayList<>();
+    private int[] rowsPerCourse = new int[16];
+
+    // ===== Indexes =====
+    private final SortedRows byTime = new SortedRows((a, b) -> Long.compare(timeIns[a], timeIns[b]));
+    private final SortedRows byName = new SortedRows((a, b) -> {
+        int c = compareNames(names[a], names[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    });
+    private long[] sortedTimes = new long[1024]; // timeIns in byTime order
+
+    /**
+     * Adds one record and returns its row number.
+     */
+    public int add(AttendanceRecord record) {
+        lock.writeLock().lock();
+        try {
+            if (size == names.length) {
+                grow();
+            }
+            int row = size++;
+            names[row] = record.getName();
+            courseCodes[row] = codeFor(record.getCourseYear());
+            timeIns[row] = record.getTimeInMillis();
+            signatureMsbs[row] = record.getSignatureMsb();
+            signatureLsbs[row] = record.getSignatureLsb();
+            rowsPerCourse[courseCodes[row]]++;
+
+            int placed = byTime.add(row);
+            if (placed == SortedRows.APPENDED) {
+                sortedTimes[byTime.size - 1] = timeIns[row];
+            } else if (placed == SortedRows.MERGED) {
+                for (int i = 0; i < byTime.size; i++) {
+                    sortedTimes[i] = timeIns[byTime.rows[i]];
+                }
+            }
+            byName.add(row);
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===== Queries =====
+    // For every query: null or empty namePrefix / courseYear means "any",
+    // and the time range is fromMillis (inclusive) to toMillis (exclusive).
+
+    /**
+     * Counts matching rows without visiting them when an index can answer directly.
+     */
+    public int count(String namePrefix, String courseYear, long fromMillis, long toMillis) {
+        boolean anyName = namePrefix == null || namePrefix.isEmpty();
+        boolean anyTime = fromMillis == Long.MIN_VALUE && toMillis == Long.MAX_VALUE;
+        if (anyName) {
+            lock.readLock().lock();
+            try {
+                int course = courseFilter(courseYear);
+                if (course == NO_SUCH_COURSE) {
+                    return 0;
+                }
+                if (anyTime) {
+                    return course == ANY_COURSE ? size : rowsPerCourse[course];
+                }
+                if (course == ANY_COURSE) {
+                    return (mainTimePosition(toMillis) - mainTimePosition(fromMillis))
+                        + (pendingTimePosition(toMillis) - pendingTimePosition(fromMillis))
+                        + (recentTimePosition(toMillis) - recentTimePosition(fromMillis));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        int[] count = { 0 };
+        scan(namePrefix, courseYear, fromMillis, toMillis, row -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Visits matching rows. With a name prefix they come in name order,
+     * otherwise in Time In order. Returns the number of rows visited.
+     */
+    public int scan(String namePrefix, String courseYear, long fromMillis, long toMillis, RowVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int course = courseFilter(courseYear);
+            if (course == NO_SUCH_COURSE) {
+                return 0;
+            }
+            if (namePrefix != null && !namePrefix.isEmpty()) {
+                // Drive by the name index: the prefix range of each run, filtered by course and time
+                RowTest beforePrefix = row -> comparePrefix(names[row], namePrefix) < 0;
+                RowTest beforeEnd = row -> comparePrefix(names[row], namePrefix) <= 0;
+                return visitRuns(byName,
+                    firstNotBefore(byName.rows, byName.size, beforePrefix),
+                    firstNotBefore(byName.rows, byName.size, beforeEnd),
+                    firstNotBefore(byName.pending, byName.pendingSize, beforePrefix),
+                    firstNotBefore(byName.pending, byName.pendingSize, beforeEnd),
+                    firstNotBefore(byName.recent, byName.recentSize, beforePrefix),
+                    firstNotBefore(byName.recent, byName.recentSize, beforeEnd),
+                    course, fromMillis, toMillis, visitor);
+            }
+            // Drive by the time index: binary search the range, filter by course code
+            return visitRuns(byTime,
+                mainTimePosition(fromMillis), mainTimePosition(toMillis),
+                pendingTimePosition(fromMillis), pendingTimePosition(toMillis),
+                recentTimePosition(fromMillis), recentTimePosition(toMillis),
+                course, fromMillis, toMillis, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True when a row has exactly this name (ignoring case and surrounding
+     * spaces) and course/year, and a Time In in [fromMillis, toMillis).
+     */
+    public boolean contains(String name, String courseYear, long fromMillis, long toMillis) {
+        String trimmed = name.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+        boolean[] found = { false };
+        // Rows come in name order, so rows with exactly this name come before longer
+        // names with the same prefix: only the first visited row needs a look
+        scan(trimmed, courseYear, fromMillis, toMillis, row -> {
+            found[0] = compareNames(names[row], trimmed) == 0;
+            return false;
+        });
+        return found[0];
+    }
+
+    // ===== Column access for visited rows =====
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String name(int row) {
+        lock.readLock().lock();
+        try {
+            return names[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String courseYear(int row) {
+        lock.readLock().lock();
+        try {
+            return courseNames.get(courseCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long timeIn(int row) {
+        lock.readLock().lock();
+        try {
+            return timeIns[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public AttendanceRecord record(int row) {
+        lock.readLock().lock();
+        try {
+            return new AttendanceRecord(names[row], courseNames.get(courseCodes[row]), timeIns[row],
+                signatureMsbs[row], signatureLsbs[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns every distinct Course/Year seen so far, in first-seen order. */
+    public List<String> courseYears() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(courseNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Internals =====
+
+    private static final int ANY_COURSE = -1;
+    private static final int NO_SUCH_COURSE = -2;
+
+    // Course/Year values are matched ignoring case and surrounding spaces
+    private static String courseKey(String courseYear) {
+        return courseYear.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Names are matched ignoring case and surrounding spaces, without making lower-case copies.
+    // Negative, zero or positive like compareTo.
+    private static int compareNames(String a, String b) {
+        int i = nameStart(a);
+        int iEnd = nameEnd(a, i);
+        int j = nameStart(b);
+        int jEnd = nameEnd(b, j);
+        while (i < iEnd && j < jEnd) {
+            char x = a.charAt(i++);
+            char y = b.charAt(j++);
+            if (x != y) { // Same character is the common case; only fold when they differ
+                int c = fold(x) - fold(y);
+                if (c != 0) {
+                    return c;
+                }
+            }
+        }
+        return (iEnd - i) - (jEnd - j);
+    }
+
+    // Where a name falls in compareNames() order relative to the names starting with
+    // prefix (taken as given): negative before them, zero among them, positive after
+    private static int comparePrefix(String name, String prefix) {
+        int i = nameStart(name);
+        int end = nameEnd(name, i);
+        for (int k = 0; k < prefix.length(); k++, i++) {
+            if (i == end) {
+                return -1; // The name is shorter than the prefix and matches it so far
+            }
+            char x = name.charAt(i);
+            char y = prefix.charAt(k);
+            if (x != y) {
+                int c = fold(x) - fold(y);
+                if (c != 0) {
+                    return c;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int nameStart(String name) {
+        int i = 0;
+        while (i < name.length() && name.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int nameEnd(String name, int start) {
+        int end = name.length();
+        while (end > start && name.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /** One name character with case folded away, as String.equalsIgnoreCase compares it. */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private int codeFor(String courseYear) {
+        String key = courseKey(courseYear);
+        Integer code = courseCodeByKey.get(key);
+        if (code == null) {
+            code = courseNames.size();
+            courseCodeByKey.put(key, code);
+            courseNames.add(courseYear.trim());
+            if (code == rowsPerCourse.length) {
+                rowsPerCourse = Arrays.copyOf(rowsPerCourse, code * 2);
+            }
+        }
+        return code;
+    }
+
+    private int courseFilter(String courseYear) {
+        if (courseYear == null || courseYear.trim().isEmpty()) {
+            return ANY_COURSE;
+        }
+        Integer code = courseCodeByKey.get(courseKey(courseYear));
+        return code == null ? NO_SUCH_COURSE : code;
+    }
+
+    // Visits rows main[i, iEnd), pending[j, jEnd) and recent[k, kEnd) of an index
+    // in key order, keeping those that pass the course and time filters
+    private int visitRuns(SortedRows index, int i, int iEnd, int j, int jEnd, int k, int kEnd,
+                          int course, long fromMillis, long toMillis, RowVisitor visitor) {
+        int visited = 0;
+        while (i < iEnd || j < jEnd || k < kEnd) {
+            // Smallest of the three heads; on a tie the main run goes first
+            int row = -1;
+            int from = 0;
+            if (i < iEnd) {
+                row = index.rows[i];
+                from = 1;
+            }
+            if (j < jEnd && (row < 0 || index.comparator.compare(index.pending[j], row) < 0)) {
+                row = index.pending[j];
+                from = 2;
+            }
+            if (k < kEnd && (row < 0 || index.comparator.compare(index.recent[k], row) < 0)) {
+                row = index.recent[k];
+                from = 3;
+            }
+            if (from == 1) {
+                i++;
+            } else if (from == 2) {
+                j++;
+            } else {
+                k++;
+            }
+            if ((course == ANY_COURSE || courseCodes[row] == course)
+                && timeIns[row] >= fromMillis && timeIns[row] < toMillis) {
+                visited++;
+                if (!visitor.visit(row)) {
+                    break;
+                }
+            }
+        }
+        return visited;
+    }
+
+    // First position in the main time run with time >= millis
+    // (the start of a range when millis is fromMillis, its exclusive end when it is toMillis)
+    private int mainTimePosition(long millis) {
+        int low = 0;
+        int high = byTime.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedTimes[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Same as mainTimePosition for the out-of-order runs
+    private int pendingTimePosition(long millis) {
+        return firstNotBefore(byTime.pending, byTime.pendingSize, row -> timeIns[row] < millis);
+    }
+
+    private int recentTimePosition(long millis) {
+        return firstNotBefore(byTime.recent, byTime.recentSize, row -> timeIns[row] < millis);
+    }
+
+    // Tests whether a row comes before the position being searched for
+    private interface RowTest {
+        boolean before(int row);
+    }
+
+    // Binary search: first position in rows[0, n) whose row is not "before"
+    private static int firstNotBefore(int[] rows, int n, RowTest test) {
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (test.before(rows[mid])) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        courseCodes = Arrays.copyOf(courseCodes, capacity);
+        timeIns = Arrays.copyOf(timeIns, capacity);
+        signatureMsbs = Arrays.copyOf(signatureMsbs, capacity);
+        signatureLsbs = Arrays.copyOf(signatureLsbs, capacity);
+        sortedTimes = Arrays.copyOf(sortedTimes, capacity);
+    }
+
+    // Compares two row numbers
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Row numbers kept sorted by some key, in three runs:
+     * - rows[0, size): the main run; rows in order are simply appended
+     * - recent[0, recentSize): the latest rows that arrived out of order, each
+     *   inserted at its place (at most RECENT_CAPACITY, so that is a short copy)
+     * - pending[0, pendingSize): older out-of-order rows
+     * When recent is full it is merged into pending, and pending is merged into
+     * the main run (O(n)) once it holds more than a quarter as many rows, so
+     * each row is merged only a few times. All of it happens in add(), on the
+     * writer's thread; queries only binary search the three runs.
+     */
+    private static final class SortedRows {
+        static final int APPENDED = 0;   // Row went to the end of the main run
+        static final int PENDING = 1;    // Row went into the recent run
+        static final int MERGED = 2;     // Pending run was merged into the main run
+
+        private static final int RECENT_CAPACITY = 4096;
+        private static final int MERGE_FRACTION = 4;
+
+        final RowComparator comparator;
+        int[] rows = new int[1024];
+        int size;
+        int[] pending = new int[RECENT_CAPACITY];
+        int pendingSize;
+        final int[] recent = new int[RECENT_CAPACITY];
+        int recentSize;
+        private int[] spare = new int[RECENT_CAPACITY];    // Merge target, swapped with pending
+
+        SortedRows(RowComparator comparator) {
+            this.comparator = comparator;
+        }
+
+        int add(int row) {
+            if (size == 0 || comparator.compare(rows[size - 1], row) <= 0) {
+                if (size == rows.length) {
+                    rows = Arrays.copyOf(rows, size * 2);
+                }
+                rows[size++] = row;
+                return APPENDED;
+            }
+            // Insert after every row that doesn't sort after it
+            int at = firstNotBefore(recent, recentSize, other -> comparator.compare(other, row) <= 0);
+            System.arraycopy(recent, at, recent, at + 1, recentSize - at);
+            recent[at] = row;
+            recentSize++;
+            if (recentSize < RECENT_CAPACITY) {
+                return PENDING;
+            }
+            if (spare.length < pendingSize + recentSize) {
+                spare = new int[Math.max(spare.length * 2, pendingSize + recentSize)];
+            }
+            mergeInto(spare, pending, pendingSize, recent, recentSize);
+            int[] merged = spare;
+            spare = pending;
+            pending = merged;
+            pendingSize += recentSize;
+            recentSize = 0;
+            if (pendingSize > size / MERGE_FRACTION) {
+                int[] main = new int[Math.max(rows.length, size + pendingSize)];
+                mergeInto(main, rows, size, pending, pendingSize);
+                rows = main;
+                size += pendingSize;
+                pendingSize = 0;
+                return MERGED;
+            }
+            return PENDING;
+        }
+
+        // Merges two sorted arrays a[0, n) and b[0, m) into merged[0, n + m)
+        private void mergeInto(int[] merged, int[] a, int n, int[] b, int m) {
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < n && j < m) {
+                merged[k++] = comparator.compare(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+            }
+            while (i < n) {
+                merged[k++] = a[i++];
+            }
+            while (j < m) {
+                merged[k++] = b[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+// Import for file and memory-mapped I/O
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+// Import for collections and callbacks
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Append-only attendance journal.
+ * Records are stored in fixed-width slots (see AttendanceRecord) inside
+ * memory-mapped segment files. When a segment is full a new one is started.
+ *
+ * Appending only copies bytes into the mapped region, so it never waits for
+ * the disk. A background flusher thread makes the data durable in groups:
+ * it wakes up every flush interval (or when commit() is called) and forces
+ * every segment written since the last flush with a single fsync each.
+ * Each slot carries a checksum, so a slot torn by a crash ends the data on
+ * replay; reopening the journal clears it and anything after it.
+ *
+ * Only one journal may be open per directory: the constructor locks a lock
+ * file in it and fails if another process (or this one) already has it open.
+ * Readers (replay(Path, ...)) don't need the lock.
+ */
+public final class AttendanceJournal implements AutoCloseable {
+
+    /** Default number of records per segment file (about 10 MB per segment). */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 65536;
+
+    /** Default time between group commits. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 20;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "journal.lock";
+
+    // Directories with a journal open in this process. Checked before the file lock,
+    // because closing a second channel on the lock file would release the first one's lock.
+    private static final Set<Path> OPEN_DIRECTORIES = new HashSet<>();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long flushIntervalMillis;
+    private final Path lockKey;            // Entry in OPEN_DIRECTORIES
+    private final FileChannel lockChannel; // Held open with lock until close()
+    private final FileLock lock;
+
+    // ===== Writer state (guarded by "this") =====
+    private MappedByteBuffer current;      // Segment currently being appended to
+    private int currentSegmentIndex;       // Number in the current segment's file name
+    private int nextSlot;                  // Next free slot in the current segment
+    private long appendedSequence;         // Total records appended (since open)
+    private final List<MappedByteBuffer> retired = new ArrayList<>(); // Full segments not yet forced
+    private boolean closed;
+
+    // ===== Flusher state (guarded by flushLock) =====
+    private final Object flushLock = new Object();
+    private long durableSequence;          // Records known to be on disk
+    private boolean flushRequested;
+    private final Thread flusher;
+
+    /**
+     * Opens (or creates) a journal in the given directory with default settings.
+     */
+    public static AttendanceJournal open(Path directory) throws IOException {
+        return new AttendanceJournal(directory, DEFAULT_RECORDS_PER_SEGMENT, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public AttendanceJournal(Path directory, int recordsPerSegment, long flushIntervalMillis) throws IOException {
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("recordsPerSegment must be positive");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.flushIntervalMillis = flushIntervalMillis;
+        Files.createDirectories(directory);
+
+        // A second writer would append into the same slots, so fail before touching any segment
+        lockKey = directory.toRealPath();
+        synchronized (OPEN_DIRECTORIES) {
+            if (!OPEN_DIRECTORIES.add(lockKey)) {
+                throw inUse(directory);
+            }
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = channel.tryLock();
+            if (lock == null) {
+                throw inUse(directory);
+            }
+            lockChannel = channel;
+
+            // Continue in the last existing segment, or start the first one
+            List<Path> segments = listSegments();
+            if (segments.isEmpty()) {
+                currentSegmentIndex = 0;
+                current = mapSegment(segmentPath(0));
+                nextSlot = 0;
+            } else {
+                currentSegmentIndex = segmentIndex(segments.get(segments.size() - 1));
+                current = mapSegment(segmentPath(currentSegmentIndex));
+                nextSlot = recoverEndOfData(current);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close(); // Also releases the lock if it was taken
+            }
+            synchronized (OPEN_DIRECTORIES) {
+                OPEN_DIRECTORIES.remove(lockKey);
+            }
+            throw e;
+        }
+
+        flusher = new Thread(this::flushLoop, "attendance-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends one record and returns its sequence number (1-based, since open).
+     * The record becomes durable at the next group commit.
+     */
+    public synchronized long append(AttendanceRecord record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (nextSlot == recordsPerSegment) {
+            rollSegment();
+        }
+        record.writeTo(current, nextSlot * AttendanceRecord.RECORD_SIZE);
+        nextSlot++;
+        return ++appendedSequence;
+    }
+
+    /**
+     * Asks the flusher to commit now and waits until everything appended
+     * so far is on disk.
+     */
+    public void commit() throws InterruptedException {
+        long target;
+        synchronized (this) {
+            target = appendedSequence;
+        }
+        awaitDurable(target);
+    }
+
+    /**
+     * Waits until the record with the given sequence number is on disk.
+     */
+    public void awaitDurable(long sequence) throws InterruptedException {
+        synchronized (flushLock) {
+            while (durableSequence < sequence) {
+                if (!flusher.isAlive()) {
+                    throw new IllegalStateException("Journal flusher has stopped");
+                }
+                flushRequested = true;
+                flushLock.notifyAll();
+                flushLock.wait(flushIntervalMillis);
+            }
+        }
+    }
+
+    /** Returns the number of records appended since the journal was opened. */
+    public synchronized long getAppendedSequence() {
+        return appendedSequence;
+    }
+
+    /** Returns the number of records appended since open that are known to be on disk. */
+    public long getDurableSequence() {
+        synchronized (flushLock) {
+            return durableSequence;
+        }
+    }
+
+    /**
+     * Reads every record in the journal, oldest first.
+     * Call before appending or while no appends are running.
+     */
+    public void replay(Consumer<AttendanceRecord> consumer) throws IOException {
+        replay(directory, 0, consumer);
+    }
+
+    /**
+     * Reads the records of the journal in the given directory, oldest first,
+     * after skipping the first "skip" records. Whole segments are skipped
+     * without reading them, so reading only the newest records is cheap.
+     * The journal does not have to be open, and another process may be
+     * appending to it (records it has not finished writing are not seen).
+     *
+     * Returns the number of records read, or -1 if the journal holds fewer
+     * than "skip" records.
+     */
+    public static long replay(Path directory, long skip, Consumer<AttendanceRecord> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return skip == 0 ? 0 : -1;
+        }
+        long toSkip = skip;
+        long count = 0;
+        for (Path segment : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment)) {
+                int slots = (int) (channel.size() / AttendanceRecord.RECORD_SIZE);
+                if (toSkip >= slots) {
+                    toSkip -= slots; // Only the last segment can be partly filled
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int slot = (int) toSkip;
+                if (slot > 0 && !AttendanceRecord.isOccupied(buffer, (slot - 1) * AttendanceRecord.RECORD_SIZE)) {
+                    return -1; // Fewer records than were skipped
+                }
+                toSkip = 0;
+                for (; slot < slots; slot++) {
+                    AttendanceRecord record = AttendanceRecord.readFrom(buffer, slot * AttendanceRecord.RECORD_SIZE);
+                    if (record == null) {
+                        break; // End of written data in this segment
+                    }
+                    consumer.accept(record);
+                    count++;
+                }
+            }
+        }
+        return toSkip > 0 ? -1 : count;
+    }
+
+    /**
+     * Stops the flusher after a final group commit and releases the directory lock.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flushOnce();
+        } finally {
+            lock.release();
+            lockChannel.close();
+            synchronized (OPEN_DIRECTORIES) {
+                OPEN_DIRECTORIES.remove(lockKey);
+            }
+        }
+    }
+
+    private static IOException inUse(Path directory) {
+        return new IOException("Attendance journal in use: " + directory.toAbsolutePath()
+            + " is already open in another program (close it first)");
+    }
+
+    // ===== Segment handling =====
+
+    // Called with "this" held. The full segment is handed to the flusher instead of forced here.
+    // Nothing changes if the new segment can't be mapped, so the next append tries again.
+    private void rollSegment() throws IOException {
+        MappedByteBuffer next = mapSegment(segmentPath(currentSegmentIndex + 1));
+        retired.add(current);
+        currentSegmentIndex++;
+        current = next;
+        nextSlot = 0;
+    }
+
+    private MappedByteBuffer mapSegment(Path path) throws IOException {
+        long size = (long) recordsPerSegment * AttendanceRecord.RECORD_SIZE;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < size) {
+                file.setLength(size); // New bytes are zero, i.e. empty slots
+            }
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // The written data ends at the first slot without a whole record. After a crash the
+    // slots past it can still hold records whose pages reached the disk before the torn
+    // one's; they were never committed, so they are cleared before appends reach them.
+    private int recoverEndOfData(MappedByteBuffer buffer) {
+        int end = 0;
+        while (end < recordsPerSegment && AttendanceRecord.isOccupied(buffer, end * AttendanceRecord.RECORD_SIZE)) {
+            end++;
+        }
+        boolean cleared = false;
+        for (int slot = end; slot < recordsPerSegment; slot++) {
+            if (!AttendanceRecord.isBlank(buffer, slot * AttendanceRecord.RECORD_SIZE)) {
+                AttendanceRecord.clear(buffer, slot * AttendanceRecord.RECORD_SIZE);
+                cleared = true;
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+        return end;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        return listSegments(directory);
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // Zero-padded names sort in segment order
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentIndex(Path path) {
+        String fileName = path.getFileName().toString();
+        return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // ===== Group commit =====
+
+    private void flushLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (flushLock) {
+                    if (!flushRequested) {
+                        flushLock.wait(flushIntervalMillis);
+                    }
+                    flushRequested = false;
+                }
+                flushOnce();
+            }
+        } catch (InterruptedException e) {
+            // Closing: close() does the final flush
+        } catch (UncheckedIOException e) {
+            System.err.println("Attendance journal flush failed: " + e.getMessage());
+        }
+    }
+
+    // Forces every dirty segment once and publishes the new durable sequence
+    private void flushOnce() {
+        List<MappedByteBuffer> toForce;
+        MappedByteBuffer active;
+        long target;
+        synchronized (this) {
+            target = appendedSequence;
+            toForce = new ArrayList<>(retired);
+            retired.clear();
+            active = current;
+        }
+        synchronized (flushLock) {
+            if (durableSequence >= target && toForce.isEmpty()) {
+                return; // Nothing new since the last commit
+            }
+        }
+        for (MappedByteBuffer buffer : toForce) {
+            buffer.force();
+        }
+        active.force();
+        synchronized (flushLock) {
+            durableSequence = Math.max(durableSequence, target);
+            flushLock.notifyAll();
+        }
+    }
+}
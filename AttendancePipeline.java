@@ -0,0 +1,442 @@
+// Import for the writer thread and statistics
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves attendance persistence off the Swing Event Dispatch Thread.
+ *
+ * The EDT (or any other thread) hands an immutable AttendanceRecord to
+ * submit(), which only puts it into a bounded MpscRingBuffer. A dedicated
+ * writer thread drains the buffer in batches, appends the batch to the
+ * journal, waits for one group commit, and then reports every completion
+ * of the batch back on the EDT with a single invokeLater.
+ * Headless users (the HTTP server) pass their own completion executor instead.
+ *
+ * When the buffer is full submit() returns false right away, so callers can
+ * tell the user to retry instead of freezing.
+ *
+ * Commit listeners run on the writer thread for every record once it is in
+ * the journal; use them to keep in-memory views (indexes, totals) up to date.
+ * Failure listeners hear about batches that could not be (fully) saved.
+ * Records appended to the journal count as saved even when the group commit
+ * then fails: they are in the journal, so a retry would only save them twice,
+ * and the failure just means they may not be on disk yet.
+ *
+ * With a DuplicateFilter set, repeats of a saved check-in (same name and
+ * course/year in the same window) are completed with a DuplicateException
+ * instead of being written. Only the writer thread checks, so submit() never
+ * waits on the index (the EDT stays free) and racing double-taps save only once.
+ */
+public final class AttendancePipeline implements AutoCloseable {
+
+    /**
+     * Called on the EDT (or the completion executor) when a submitted record
+     * has been saved (error == null) or could not be saved.
+     */
+    public interface Completion {
+        void done(AttendanceRecord record, Throwable error);
+    }
+
+    /** Default number of records the queue can hold. */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /** Default largest number of records written per group commit. */
+    public static final int DEFAULT_MAX_BATCH = 512;
+
+    // A queued record with its callback and enqueue time
+    private static final class Submission {
+        final AttendanceRecord record;
+        final Completion completion;
+        final long enqueuedNanos;
+        boolean duplicate;                 // Set by the writer thread
+        boolean saved;                     // Set by the writer thread once on disk
+
+        Submission(AttendanceRecord record, Completion completion, long enqueuedNanos) {
+            this.record = record;
+            this.completion = completion;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final AttendanceJournal journal;
+    private final MpscRingBuffer<Submission> queue;
+    private final int maxBatch;
+    private final Executor completions;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private boolean closed;                // Set by close() once the leftovers are failed (guarded by "this")
+    private final List<Consumer<AttendanceRecord>> commitListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Throwable>> failureListeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> writerTasks = new ConcurrentLinkedQueue<>();
+    private volatile DuplicateFilter duplicateFilter;
+
+    // ===== Statistics =====
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private volatile int lastBatchSize;
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public AttendancePipeline(AttendanceJournal journal) {
+        this(journal, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public AttendancePipeline(AttendanceJournal journal, int capacity, int maxBatch) {
+        this(journal, capacity, maxBatch, Metrics::invokeLater);
+    }
+
+    /**
+     * Creates a pipeline whose completions run on the given executor.
+     * Runnable::run calls them directly on the writer thread, so they must be quick.
+     */
+    public AttendancePipeline(AttendanceJournal journal, int capacity, int maxBatch, Executor completions) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.journal = journal;
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.maxBatch = maxBatch;
+        this.completions = completions;
+        this.writer = new Thread(this::writeLoop, "attendance-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record for saving. Never blocks.
+     * Returns false when the pipeline is saturated (or closed); the completion is then not called.
+     * A record that races close() is either still written or completed with an error.
+     */
+    public boolean submit(AttendanceRecord record, Completion completion) {
+        if (!running || !queue.offer(new Submission(record, completion, System.nanoTime()))) {
+            rejected.increment();
+            Metrics.PIPELINE_BUSY.increment();
+            return false;
+        }
+        submitted.increment();
+        LockSupport.unpark(writer);
+        if (!running) {
+            // close() came in between: if it already failed the leftovers, this one was not among them
+            synchronized (this) {
+                if (closed) {
+                    failLeftovers();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a listener called on the writer thread for each committed record.
+     * Listeners must be quick; they delay the next batch.
+     */
+    public void addCommitListener(Consumer<AttendanceRecord> listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener called on the writer thread when a batch could not be saved
+     * (or only its first records could; those still go to the commit listeners).
+     */
+    public void addFailureListener(Consumer<Throwable> listener) {
+        failureListeners.add(listener);
+    }
+
+    /**
+     * Runs a task on the writer thread between batches (or in close(), once the
+     * writer has stopped). No listener is running then, and every record in the
+     * journal has been passed to the commit or failure listeners, so it is the
+     * place to catch a view up with the journal and attach it as a listener.
+     */
+    public void runOnWriter(Runnable task) {
+        writerTasks.add(task);
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Turns repeated check-ins away using the given filter (null turns checking off).
+     * Its index must already hold the saved records and be a commit listener.
+     */
+    public void setDuplicateFilter(DuplicateFilter filter) {
+        duplicateFilter = filter;
+    }
+
+    // ===== Writer thread =====
+
+    private void writeLoop() {
+        List<Submission> batch = new ArrayList<>(maxBatch);
+        while (running || queue.size() > 0) {
+            runWriterTasks();
+            queue.drain(batch::add, maxBatch);
+            if (batch.isEmpty()) {
+                // Woken by submit(); the timeout covers a wake-up that races with parking
+                LockSupport.parkNanos(1_000_000L);
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void runWriterTasks() {
+        Runnable task;
+        while ((task = writerTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Attendance writer task failed: " + e);
+            }
+        }
+    }
+
+    private void writeBatch(List<Submission> batch) {
+        DuplicateFilter filter = duplicateFilter;
+        int toWrite = filter == null ? batch.size() : markDuplicates(batch, filter);
+        Throwable error = null;
+        long start = Metrics.start();
+        int appended = 0; // Records of this batch now in the journal (the first ones to write)
+        try {
+            for (Submission submission : batch) {
+                if (!submission.duplicate) {
+                    journal.append(submission.record);
+                    appended++;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e; // The records before the failed one are in the journal
+        }
+        if (appended > 0) {
+            try {
+                journal.commit(); // One fsync for the whole batch
+                Metrics.JOURNAL_COMMIT.recordSince(start);
+            } catch (InterruptedException | RuntimeException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                System.err.println("Attendance journal commit failed; " + appended
+                    + " records are saved but may not be on disk yet: " + e);
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+            // In the journal either way, so saved: reporting them as failed would invite a second copy
+            Metrics.JOURNAL_RECORDS.add(appended);
+            markSaved(batch, appended);
+        }
+        if (error != null) {
+            Metrics.JOURNAL_FAILURES.increment();
+        }
+        recordBatch(toWrite);
+        for (Consumer<AttendanceRecord> listener : commitListeners) {
+            try {
+                for (Submission submission : batch) {
+                    if (submission.saved) {
+                        listener.accept(submission.record);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A broken listener must not stop the writer
+                System.err.println("Attendance commit listener failed: " + e);
+            }
+        }
+        if (error != null) {
+            for (Consumer<Throwable> listener : failureListeners) {
+                try {
+                    listener.accept(error);
+                } catch (RuntimeException e) {
+                    System.err.println("Attendance failure listener failed: " + e);
+                }
+            }
+        }
+
+        Submission[] done = batch.toArray(new Submission[0]);
+        Throwable failure = error;
+        completions.execute(() -> {
+            long now = System.nanoTime();
+            for (Submission submission : done) {
+                recordLatency(now - submission.enqueuedNanos);
+                completed.increment();
+                if (submission.completion != null) {
+                    submission.completion.done(submission.record, submission.duplicate
+                        ? new DuplicateFilter.DuplicateException(filter.describe(submission.record))
+                        : submission.saved ? null : failure);
+                }
+            }
+        });
+    }
+
+    // Marks the first "count" records to write as saved
+    private static void markSaved(List<Submission> batch, int count) {
+        for (Submission submission : batch) {
+            if (count == 0) {
+                return;
+            }
+            if (!submission.duplicate) {
+                submission.saved = true;
+                count--;
+            }
+        }
+    }
+
+    // Marks repeats of saved records and of earlier records in the same batch;
+    // returns how many are left to write
+    private int markDuplicates(List<Submission> batch, DuplicateFilter filter) {
+        int toWrite = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            if (!filter.add(submission.record)) {
+                submission.duplicate = isEarlierInBatch(batch, i, filter) || filter.isSaved(submission.record);
+            }
+            if (submission.duplicate) {
+                recordDuplicate();
+            } else {
+                toWrite++;
+            }
+        }
+        return toWrite;
+    }
+
+    private static boolean isEarlierInBatch(List<Submission> batch, int end, DuplicateFilter filter) {
+        AttendanceRecord record = batch.get(end).record;
+        for (int i = 0; i < end; i++) {
+            Submission earlier = batch.get(i);
+            if (!earlier.duplicate && filter.isSameKey(earlier.record, record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordDuplicate() {
+        duplicates.increment();
+        Metrics.SUBMIT_DUPLICATES.increment();
+    }
+
+    private void recordBatch(int size) {
+        batches.increment();
+        written.add(size);
+        lastBatchSize = size;
+        maxBatchSize.accumulateAndGet(size, Math::max);
+    }
+
+    private void recordLatency(long nanos) {
+        Metrics.PIPELINE_LATENCY.record(nanos);
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // ===== Statistics getters =====
+
+    /** Records waiting in the queue right now. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    /** Size of the most recently written batch. */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) written.sum() / count;
+    }
+
+    /** Average time from submit() to the completion running, in milliseconds. */
+    public double getAverageLatencyMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /** Submissions turned away because the queue was full. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Check-ins turned away as repeats. */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /** True when the queue is at least 90% full. */
+    public boolean isSaturated() {
+        return getQueueDepth() >= getQueueCapacity() * 9 / 10;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Queue: %d/%d | Batch: %d (avg %.1f) | Latency: %.1f ms (max %.1f) | Rejected: %d",
+            getQueueDepth(), getQueueCapacity(), getLastBatchSize(), getAverageBatchSize(),
+            getAverageLatencyMillis(), getMaxLatencyMillis(), getRejectedCount());
+    }
+
+    /**
+     * Stops accepting records, writes whatever is still queued and stops the writer.
+     * Records queued by a submit() that raced this are completed with an error.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        runWriterTasks(); // Tasks that came after the writer's last look
+        synchronized (this) {
+            closed = true;
+            failLeftovers();
+        }
+    }
+
+    // Completes records queued after the writer stopped (call holding "this", once it has)
+    private void failLeftovers() {
+        List<Submission> leftovers = new ArrayList<>();
+        queue.drain(leftovers::add, Integer.MAX_VALUE);
+        if (leftovers.isEmpty()) {
+            return;
+        }
+        IllegalStateException error = new IllegalStateException("Attendance pipeline is closed; not saved");
+        completions.execute(() -> {
+            for (Submission submission : leftovers) {
+                completed.increment();
+                if (submission.completion != null) {
+                    submission.completion.done(submission.record, error);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,239 @@
+// Import for the fixed-width binary encoding
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+// Import for the E-Signature value
+import java.util.UUID;
+// Import for the slot checksum
+import java.util.zip.CRC32C;
+
+/**
+ * One attendance check-in.
+ * Records are immutable and have a fixed-width binary form so that the
+ * journal can store them in equal-sized slots:
+ * - 4 bytes  : slot marker (MAGIC when the slot holds a record, 0 when empty)
+ * - 2 + 94   : Name (length-prefixed UTF-8)
+ * - 2 + 30   : Course/Year (length-prefixed UTF-8)
+ * - 8 bytes  : Time In as epoch milliseconds
+ * - 16 bytes : E-Signature as two longs (most / least significant bits)
+ * - 4 bytes  : CRC-32C of the bytes between the marker and the checksum
+ *
+ * Slots are 160 bytes, so some of them straddle two 4 KB pages, and after a
+ * crash the page holding the marker can be on disk while the other one is
+ * not. The checksum catches such a torn slot: it is read back as empty.
+ * Slots marked LEGACY_MAGIC were written before the checksum was added and
+ * are read without it.
+ */
+public final class AttendanceRecord {
+
+    /** Marker written at the start of every occupied slot ("ATT2"). */
+    public static final int MAGIC = 0x41545432;
+
+    /** Marker of slots written before the checksum was added ("ATT1"). */
+    public static final int LEGACY_MAGIC = 0x41545431;
+
+    /** Maximum encoded (UTF-8) bytes of the name and course/year; longer ones are refused. */
+    public static final int NAME_BYTES = 94;
+    public static final int COURSE_BYTES = 30;
+
+    /** Offsets of each field inside a slot. */
+    static final int MARKER_OFFSET = 0;
+    static final int NAME_OFFSET = 4;
+    static final int COURSE_OFFSET = NAME_OFFSET + 2 + NAME_BYTES;
+    static final int TIME_IN_OFFSET = COURSE_OFFSET + 2 + COURSE_BYTES;
+    static final int SIGNATURE_OFFSET = TIME_IN_OFFSET + 8;
+    static final int CHECKSUM_OFFSET = SIGNATURE_OFFSET + 16;
+
+    /** Size in bytes of one encoded record. */
+    public static final int RECORD_SIZE = 160;
+
+    /** Message shown when a required field is missing. */
+    public static final String MISSING_FIELDS_MESSAGE =
+        "Please fill in all required fields (Name and Course/Year).";
+
+    /** Messages shown when a field does not fit its slot. */
+    public static final String NAME_TOO_LONG_MESSAGE =
+        "Name is too long (at most " + NAME_BYTES + " characters; accented letters count as 2).";
+    public static final String COURSE_TOO_LONG_MESSAGE =
+        "Course/Year is too long (at most " + COURSE_BYTES + " characters; accented letters count as 2).";
+
+    private final String name;
+    private final String courseYear;
+    private final long timeInMillis;
+    private final long signatureMsb;
+    private final long signatureLsb;
+
+    public AttendanceRecord(String name, String courseYear, long timeInMillis, UUID eSignature) {
+        this(name, courseYear, timeInMillis,
+            eSignature.getMostSignificantBits(), eSignature.getLeastSignificantBits());
+    }
+
+    /**
+     * Throws IllegalArgumentException if the name or course/year is longer than its slot
+     * field, instead of cutting it (validate() them before building a record).
+     */
+    public AttendanceRecord(String name, String courseYear, long timeInMillis,
+                            long signatureMsb, long signatureLsb) {
+        if (utf8Length(name) > NAME_BYTES) {
+            throw new IllegalArgumentException(NAME_TOO_LONG_MESSAGE);
+        }
+        if (utf8Length(courseYear) > COURSE_BYTES) {
+            throw new IllegalArgumentException(COURSE_TOO_LONG_MESSAGE);
+        }
+        this.name = name;
+        this.courseYear = courseYear;
+        this.timeInMillis = timeInMillis;
+        this.signatureMsb = signatureMsb;
+        this.signatureLsb = signatureLsb;
+    }
+
+    /**
+     * True when name and course/year are both filled in (ignoring surrounding spaces).
+     */
+    public static boolean hasRequiredFields(String name, String courseYear) {
+        return name != null && !name.trim().isEmpty()
+            && courseYear != null && !courseYear.trim().isEmpty();
+    }
+
+    /**
+     * Returns the message to show when name and course/year can't be saved (a field is
+     * missing or too long for its slot), or null when they can. Surrounding spaces are
+     * ignored. Every way of submitting attendance (form, CSV import, server) checks this.
+     */
+    public static String validate(String name, String courseYear) {
+        if (!hasRequiredFields(name, courseYear)) {
+            return MISSING_FIELDS_MESSAGE;
+        }
+        if (utf8Length(name.trim()) > NAME_BYTES) {
+            return NAME_TOO_LONG_MESSAGE;
+        }
+        if (utf8Length(courseYear.trim()) > COURSE_BYTES) {
+            return COURSE_TOO_LONG_MESSAGE;
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCourseYear() {
+        return courseYear;
+    }
+
+    public long getTimeInMillis() {
+        return timeInMillis;
+    }
+
+    public long getSignatureMsb() {
+        return signatureMsb;
+    }
+
+    public long getSignatureLsb() {
+        return signatureLsb;
+    }
+
+    public UUID getESignature() {
+        return new UUID(signatureMsb, signatureLsb);
+    }
+
+    /**
+     * Writes this record into the slot starting at the given absolute offset.
+     * The checksum and then the marker are written last, so a half-written slot is
+     * never read back as a record (in this process, or on disk after a crash).
+     */
+    public void writeTo(ByteBuffer buffer, int offset) {
+        putText(buffer, offset + NAME_OFFSET, name);
+        putText(buffer, offset + COURSE_OFFSET, courseYear);
+        buffer.putLong(offset + TIME_IN_OFFSET, timeInMillis);
+        buffer.putLong(offset + SIGNATURE_OFFSET, signatureMsb);
+        buffer.putLong(offset + SIGNATURE_OFFSET + 8, signatureLsb);
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(buffer, offset));
+        buffer.putInt(offset + MARKER_OFFSET, MAGIC);
+    }
+
+    /**
+     * Reads the record in the slot starting at the given absolute offset.
+     * Returns null when the slot is empty or torn (its checksum doesn't match).
+     */
+    public static AttendanceRecord readFrom(ByteBuffer buffer, int offset) {
+        if (!isOccupied(buffer, offset)) {
+            return null;
+        }
+        return new AttendanceRecord(
+            getText(buffer, offset + NAME_OFFSET),
+            getText(buffer, offset + COURSE_OFFSET),
+            buffer.getLong(offset + TIME_IN_OFFSET),
+            buffer.getLong(offset + SIGNATURE_OFFSET),
+            buffer.getLong(offset + SIGNATURE_OFFSET + 8));
+    }
+
+    /** Returns true when the slot starting at the given offset holds a whole record. */
+    public static boolean isOccupied(ByteBuffer buffer, int offset) {
+        int marker = buffer.getInt(offset + MARKER_OFFSET);
+        return marker == MAGIC
+            ? buffer.getInt(offset + CHECKSUM_OFFSET) == checksum(buffer, offset)
+            : marker == LEGACY_MAGIC;
+    }
+
+    /** Returns true when nothing was ever written to the slot (its marker is 0). */
+    static boolean isBlank(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + MARKER_OFFSET) == 0;
+    }
+
+    /** Marks the slot starting at the given offset as empty. */
+    static void clear(ByteBuffer buffer, int offset) {
+        buffer.putInt(offset + MARKER_OFFSET, 0);
+    }
+
+    // CRC-32C of the slot's fields (everything between the marker and the checksum)
+    private static int checksum(ByteBuffer buffer, int offset) {
+        ByteBuffer fields = buffer.duplicate();
+        fields.limit(offset + CHECKSUM_OFFSET).position(offset + NAME_OFFSET);
+        CRC32C crc = new CRC32C();
+        crc.update(fields);
+        return (int) crc.getValue();
+    }
+
+    // Writes a length-prefixed UTF-8 string (the constructor made sure it fits)
+    private static void putText(ByteBuffer buffer, int offset, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort(offset, (short) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + 2 + i, bytes[i]);
+        }
+    }
+
+    // Bytes the text takes in UTF-8, counted without encoding it
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4; // One character outside the BMP
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static String getText(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return name + " | " + courseYear + " | " + timeInMillis + " | " + getESignature();
+    }
+}
@@ -0,0 +1,765 @@
+// Import for the snapshot file
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+// Import for day boundaries and the late cut-off
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+// Import for the groups, locking and the auto-save thread
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Attendance totals per course/year and per day, kept up to date one
+ * check-in at a time so reports never rescan the journal.
+ *
+ * For every course/year and every day it keeps the number of check-ins,
+ * how many different students were present, how many came late (Time In
+ * after -Dattendance.late.after, default 08:00) and the first and last
+ * Time In. For every student it keeps the days they were present, so
+ * absents(course, name) is "days the course met" minus "days present",
+ * ready for the grade calculator. A course meets on a day when anyone from
+ * it checks in. Queries cost O(groups), never O(records).
+ *
+ * The totals are saved to rollups.dat next to the journal segments. The
+ * file records how many journal records it covers, so loading reads the file
+ * and then only the journal records added after it (for example by a crash
+ * before the last save, or by "app --import"). It is rebuilt from the whole
+ * journal when it is missing, damaged, or was made with another time zone
+ * or late cut-off.
+ *
+ * rollups.dat has one owner: the program writing the journal, which uses
+ * attach(). It loads (or rebuilds) the totals on a background thread while
+ * check-ins go on, and saves them. open() is for everyone else (reports, the
+ * grade calculator): it reads the same way but never writes the file.
+ *
+ * Safe for one writer (the pipeline's commit listener) and many readers.
+ */
+public final class AttendanceRollups implements AutoCloseable {
+
+    /** Snapshot file name inside the journal directory. */
+    public static final String FILE_NAME = "rollups.dat";
+
+    /** Default cut-off; a Time In after it counts as late. */
+    public static final LocalTime DEFAULT_LATE_AFTER = LocalTime.of(8, 0);
+
+    /** Returned by absents() when the course or student has no check-ins. */
+    public static final int NOT_FOUND = -1;
+
+    // First bytes of rollups.dat ("ATRU") and its layout version
+    private static final int MAGIC = 0x41545255;
+    private static final int VERSION = 1;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /** Totals of one course/year on one day. */
+    public static final class DayTotals {
+        private final String courseYear;
+        private final LocalDate day;
+        private final int checkIns;
+        private final int present;
+        private final int late;
+        private final long firstTimeIn;
+        private final long lastTimeIn;
+
+        DayTotals(String courseYear, Day day) {
+            this.courseYear = courseYear;
+            this.day = LocalDate.ofEpochDay(day.epochDay);
+            this.checkIns = day.checkIns;
+            this.present = day.present;
+            this.late = day.late;
+            this.firstTimeIn = day.firstTimeIn;
+            this.lastTimeIn = day.lastTimeIn;
+        }
+
+        public String getCourseYear() {
+            return courseYear;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        /** Records saved, counting a student who checked in twice twice. */
+        public int getCheckIns() {
+            return checkIns;
+        }
+
+        /** Different students who checked in (the headcount). */
+        public int getPresent() {
+            return present;
+        }
+
+        /** Check-ins after the late cut-off. */
+        public int getLate() {
+            return late;
+        }
+
+        /** Earliest Time In (epoch milliseconds). */
+        public long getFirstTimeIn() {
+            return firstTimeIn;
+        }
+
+        /** Latest Time In (epoch milliseconds). */
+        public long getLastTimeIn() {
+            return lastTimeIn;
+        }
+    }
+
+    /** Totals of one course/year over every day. */
+    public static final class CourseTotals {
+        private final String courseYear;
+        private final int daysMet;
+        private final int students;
+        private final long checkIns;
+        private final long late;
+
+        CourseTotals(Course course) {
+            this.courseYear = course.courseYear;
+            this.daysMet = course.days.size();
+            this.students = course.students.size();
+            this.checkIns = course.checkIns;
+            this.late = course.late;
+        }
+
+        public String getCourseYear() {
+            return courseYear;
+        }
+
+        /** Days on which anyone from the course checked in. */
+        public int getDaysMet() {
+            return daysMet;
+        }
+
+        /** Different students who ever checked in. */
+        public int getStudents() {
+            return students;
+        }
+
+        public long getCheckIns() {
+            return checkIns;
+        }
+
+        public long getLate() {
+            return late;
+        }
+    }
+
+    // ===== Groups (mutable, guarded by lock) =====
+
+    private static final class Course {
+        final String courseYear;                                // As first entered
+        final TreeMap<Integer, Day> days = new TreeMap<>();     // By epoch day
+        final Map<String, Student> students = new HashMap<>();  // By nameKey()
+        long checkIns;
+        long late;
+        Day lastDay;   // Check-ins mostly arrive in time order, so usually the same day again
+
+        Course(String courseYear) {
+            this.courseYear = courseYear;
+        }
+
+        Day day(int epochDay) {
+            if (lastDay == null || lastDay.epochDay != epochDay) {
+                lastDay = days.computeIfAbsent(epochDay, Day::new);
+            }
+            return lastDay;
+        }
+    }
+
+    private static final class Day {
+        final int epochDay;
+        int checkIns;
+        int present;
+        int late;
+        long firstTimeIn = Long.MAX_VALUE;
+        long lastTimeIn = Long.MIN_VALUE;
+
+        Day(int epochDay) {
+            this.epochDay = epochDay;
+        }
+    }
+
+    private static final class Student {
+        final String name;           // As first entered
+        int[] days = new int[8];     // Epoch days present, sorted
+        int dayCount;
+
+        Student(String name) {
+            this.name = name;
+        }
+
+        // Returns false when the student was already present that day
+        boolean addDay(int epochDay) {
+            int position = dayCount;
+            if (dayCount > 0 && days[dayCount - 1] >= epochDay) {
+                position = Arrays.binarySearch(days, 0, dayCount, epochDay);
+                if (position >= 0) {
+                    return false;
+                }
+                position = -position - 1;
+            }
+            if (dayCount == days.length) {
+                days = Arrays.copyOf(days, dayCount * 2);
+            }
+            System.arraycopy(days, position, days, position + 1, dayCount - position);
+            days[position] = epochDay;
+            dayCount++;
+            return true;
+        }
+    }
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final LocalTime lateAfter;
+    private final long lateAfterMillis;    // Milliseconds after midnight
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Course> courses = new TreeMap<>();   // By upper-case course/year
+    private long records;                  // Journal records counted so far
+    private final Object saveLock = new Object();
+    private long savedRecords = -1;        // Value of records at the last save (guarded by saveLock)
+    private boolean stale;                 // No longer matches the journal (a rebuild failed)
+    private final boolean owner;           // Made by attach(): the only one that saves rollups.dat
+    private ScheduledExecutorService saver;
+    // Rebuilds after failed batches (owner only, guarded by "this")
+    private boolean rebuilding;
+    private boolean rebuildAgain;
+
+    private AttendanceRollups(Path directory, ZoneId zone, LocalTime lateAfter, boolean owner) {
+        this.directory = directory;
+        this.owner = owner;
+        this.zone = zone;
+        this.lateAfter = lateAfter;
+        this.lateAfterMillis = lateAfter.toNanoOfDay() / 1_000_000L;
+    }
+
+    /**
+     * Reads the totals of the journal in the given directory, for reading
+     * only: rollups.dat plus any newer journal records, or the whole journal
+     * when the file can't be used. Never writes rollups.dat (see attach()).
+     * Uses the system time zone and -Dattendance.late.after (HH:mm, default 08:00).
+     */
+    public static AttendanceRollups open(Path directory) throws IOException {
+        return open(directory, ZoneId.systemDefault(), lateAfterFromSystemProperties());
+    }
+
+    public static AttendanceRollups open(Path directory, ZoneId zone, LocalTime lateAfter) throws IOException {
+        return load(directory, zone, lateAfter, false);
+    }
+
+    /**
+     * For the program writing the journal in the given directory through the
+     * pipeline: loads the totals on a background thread, then, on the
+     * pipeline's writer thread, counts the records it saved meanwhile and
+     * adds the totals as a commit listener. Check-ins go on while a missing
+     * or stale rollups.dat is rebuilt from the whole journal. After a failed
+     * batch the totals are recounted the same way. These roll-ups own
+     * rollups.dat: they save it once attached, on save() and on close().
+     * The future completes once they are attached.
+     */
+    public static CompletableFuture<AttendanceRollups> attach(Path directory, AttendancePipeline pipeline) {
+        return attach(directory, ZoneId.systemDefault(), lateAfterFromSystemProperties(), pipeline);
+    }
+
+    public static CompletableFuture<AttendanceRollups> attach(Path directory, ZoneId zone, LocalTime lateAfter,
+                                                              AttendancePipeline pipeline) {
+        CompletableFuture<AttendanceRollups> attached = new CompletableFuture<>();
+        inBackground("attendance-rollups-load", () -> {
+            try {
+                AttendanceRollups rollups = load(directory, zone, lateAfter, true);
+                pipeline.runOnWriter(() -> {
+                    try {
+                        rollups.catchUp();
+                        pipeline.addCommitListener(rollups::add);
+                        pipeline.addFailureListener(error -> rollups.rebuildLater(pipeline));
+                        attached.complete(rollups);
+                    } catch (IOException | RuntimeException e) {
+                        attached.completeExceptionally(e);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                attached.completeExceptionally(e);
+            }
+        });
+        // Saved right away when newer records were counted or it was rebuilt, so the next start is quick
+        return attached.thenApply(rollups -> {
+            rollups.saveQuietly();
+            return rollups;
+        });
+    }
+
+    // Reads rollups.dat plus newer records, or the whole journal when the file can't be used
+    private static AttendanceRollups load(Path directory, ZoneId zone, LocalTime lateAfter, boolean owner)
+            throws IOException {
+        AttendanceRollups rollups = new AttendanceRollups(directory, zone, lateAfter, owner);
+        if (rollups.read()) {
+            if (AttendanceJournal.replay(directory, rollups.records, rollups::add) >= 0) {
+                return rollups;
+            }
+            // The journal is shorter than the file says, so the file is not for this journal
+            rollups = new AttendanceRollups(directory, zone, lateAfter, owner);
+        }
+        AttendanceJournal.replay(directory, 0, rollups::add);
+        return rollups;
+    }
+
+    // Counts the journal records added since these totals were read (call on the writer thread)
+    private void catchUp() throws IOException {
+        if (AttendanceJournal.replay(directory, getRecordCount(), this::add) < 0) {
+            // Can't happen while this program holds the journal, which is only ever appended to
+            throw new IOException("Attendance journal in " + directory + " is shorter than its roll-ups");
+        }
+    }
+
+    private static void inBackground(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** The late cut-off from -Dattendance.late.after, or DEFAULT_LATE_AFTER. */
+    public static LocalTime lateAfterFromSystemProperties() {
+        String value = System.getProperty("attendance.late.after");
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_LATE_AFTER;
+        }
+        try {
+            return LocalTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("attendance.late.after must be HH:mm, not " + value);
+        }
+    }
+
+    /**
+     * Counts one saved record. Register it as a commit listener of the
+     * AttendancePipeline so the totals follow the journal record by record.
+     */
+    public void add(AttendanceRecord record) {
+        long timeIn = record.getTimeInMillis();
+        long local = timeIn + zone.getRules().getOffset(Instant.ofEpochMilli(timeIn)).getTotalSeconds() * 1000L;
+        int epochDay = (int) Math.floorDiv(local, MILLIS_PER_DAY);
+        boolean late = Math.floorMod(local, MILLIS_PER_DAY) > lateAfterMillis;
+
+        lock.writeLock().lock();
+        try {
+            Course course = courses.get(courseKey(record.getCourseYear()));
+            if (course == null) {
+                course = new Course(record.getCourseYear().trim());
+                courses.put(courseKey(record.getCourseYear()), course);
+            }
+            Day day = course.day(epochDay);
+            Student student = course.students.get(nameKey(record.getName()));
+            if (student == null) {
+                student = new Student(record.getName().trim());
+                course.students.put(nameKey(record.getName()), student);
+            }
+
+            day.checkIns++;
+            day.firstTimeIn = Math.min(day.firstTimeIn, timeIn);
+            day.lastTimeIn = Math.max(day.lastTimeIn, timeIn);
+            course.checkIns++;
+            if (late) {
+                day.late++;
+                course.late++;
+            }
+            if (student.addDay(epochDay)) {
+                day.present++;
+            }
+            records++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===== Queries =====
+
+    /**
+     * Absents of one student: days the course met minus days the student
+     * was present. NOT_FOUND when the student never checked in for it
+     * (often a typo in the name or course/year).
+     */
+    public int absents(String courseYear, String name) {
+        lock.readLock().lock();
+        try {
+            Course course = courses.get(courseKey(courseYear));
+            Student student = course == null ? null : course.students.get(nameKey(name));
+            return student == null ? NOT_FOUND : course.days.size() - student.dayCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Days on which anyone from the course checked in (0 for an unknown course). */
+    public int daysMet(String courseYear) {
+        lock.readLock().lock();
+        try {
+            Course course = courses.get(courseKey(courseYear));
+            return course == null ? 0 : course.days.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Day totals from "from" to "to" (both inclusive), ordered by course/year
+     * then day. A null or empty courseYear means every course.
+     */
+    public List<DayTotals> days(String courseYear, LocalDate from, LocalDate to) {
+        List<DayTotals> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            boolean anyCourse = courseYear == null || courseYear.trim().isEmpty();
+            for (Course course : anyCourse ? courses.values() : single(courseYear)) {
+                for (Day day : course.days.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values()) {
+                    result.add(new DayTotals(course.courseYear, day));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /** Totals of every course/year, ordered by course/year. */
+    public List<CourseTotals> courses() {
+        lock.readLock().lock();
+        try {
+            List<CourseTotals> result = new ArrayList<>(courses.size());
+            for (Course course : courses.values()) {
+                result.add(new CourseTotals(course));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Journal records counted in these totals. */
+    public long getRecordCount() {
+        lock.readLock().lock();
+        try {
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LocalTime getLateAfter() {
+        return lateAfter;
+    }
+
+    // ===== Saving =====
+
+    // After a failed batch the totals may no longer match the journal (records of it may be
+    // in the journal without being counted), so they are counted again from the journal on a
+    // background thread, then caught up and swapped in on the writer thread, where no record
+    // can be missed or counted twice. Check-ins go on meanwhile, and readers keep seeing the
+    // old totals until then. If the journal can't be read, the next save deletes rollups.dat
+    // instead, so the next start rebuilds it.
+    private void rebuildLater(AttendancePipeline pipeline) {
+        synchronized (this) {
+            if (rebuilding) {
+                rebuildAgain = true; // This failure may have come after the running rebuild read the journal
+                return;
+            }
+            rebuilding = true;
+        }
+        inBackground("attendance-rollups-rebuild", () -> {
+            AttendanceRollups fresh = new AttendanceRollups(directory, zone, lateAfter, owner);
+            boolean read;
+            try {
+                AttendanceJournal.replay(directory, 0, fresh::add);
+                read = true;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not rebuild attendance roll-ups: " + e);
+                read = false;
+            }
+            boolean readOk = read;
+            pipeline.runOnWriter(() -> {
+                boolean counted = readOk;
+                if (counted) {
+                    try {
+                        fresh.catchUp();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Could not rebuild attendance roll-ups: " + e);
+                        counted = false;
+                    }
+                }
+                if (counted) {
+                    replaceWith(fresh);
+                } else {
+                    markStale();
+                }
+                boolean again;
+                synchronized (this) {
+                    rebuilding = false;
+                    again = rebuildAgain;
+                    rebuildAgain = false;
+                }
+                if (again) {
+                    rebuildLater(pipeline);
+                }
+            });
+        });
+    }
+
+    private void replaceWith(AttendanceRollups fresh) {
+        lock.writeLock().lock();
+        try {
+            courses.clear();
+            courses.putAll(fresh.courses);
+            records = fresh.records;
+            stale = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        synchronized (saveLock) {
+            savedRecords = -1; // Maybe the same count, but other totals: save them anyway
+        }
+    }
+
+    private void markStale() {
+        lock.writeLock().lock();
+        try {
+            stale = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes rollups.dat if anything was added since the last save.
+     * The file is replaced in one step, so readers never see half of it.
+     * Only roll-ups made by attach() may save.
+     */
+    public void save() throws IOException {
+        if (!owner) {
+            throw new IllegalStateException("Roll-ups opened for reading; only the program writing the journal saves them");
+        }
+        Path file = directory.resolve(FILE_NAME);
+        synchronized (saveLock) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            long saving;
+            lock.readLock().lock();
+            try {
+                if (stale) {
+                    Files.deleteIfExists(file);
+                    return;
+                }
+                if (records == savedRecords) {
+                    return;
+                }
+                saving = records;
+                write(new DataOutputStream(bytes));
+            } finally {
+                lock.readLock().unlock();
+            }
+            // The write itself happens outside the lock so check-ins aren't held up
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, FILE_NAME, ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            savedRecords = saving;
+        }
+    }
+
+    // Saving after loading only saves time on the next start, so a failure is just reported
+    private void saveQuietly() {
+        if (!Files.isDirectory(directory)) {
+            return; // No journal here yet, so nothing worth saving
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            System.err.println("Could not save attendance roll-ups: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves every given number of seconds on a background daemon thread,
+     * until close(). Only for roll-ups made by attach().
+     */
+    public synchronized void startAutoSave(long seconds) {
+        if (!owner) {
+            throw new IllegalStateException("Roll-ups opened for reading; only the program writing the journal saves them");
+        }
+        if (saver != null) {
+            return;
+        }
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "attendance-rollups");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(() -> {
+            try {
+                save();
+            } catch (IOException e) {
+                System.err.println("Could not save attendance roll-ups: " + e.getMessage());
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the auto-save and, for roll-ups made by attach(), saves one last
+     * time. Close after the pipeline, so the records it still had queued are counted.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (saver != null) {
+                saver.shutdown();
+                try {
+                    saver.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                saver = null;
+            }
+        }
+        if (owner) {
+            save();
+        }
+    }
+
+    // ===== File format =====
+    // int MAGIC, int VERSION, UTF zone, long late cut-off (ms after midnight), long records,
+    // int courses, then per course:
+    //   UTF course/year, int days, per day: int epochDay, int checkIns, int present, int late,
+    //                                       long firstTimeIn, long lastTimeIn
+    //   int students, per student: UTF name, int days, int epochDay x days
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(zone.getId());
+        out.writeLong(lateAfterMillis);
+        out.writeLong(records);
+        out.writeInt(courses.size());
+        for (Course course : courses.values()) {
+            out.writeUTF(course.courseYear);
+            out.writeInt(course.days.size());
+            for (Day day : course.days.values()) {
+                out.writeInt(day.epochDay);
+                out.writeInt(day.checkIns);
+                out.writeInt(day.present);
+                out.writeInt(day.late);
+                out.writeLong(day.firstTimeIn);
+                out.writeLong(day.lastTimeIn);
+            }
+            out.writeInt(course.students.size());
+            for (Student student : course.students.values()) {
+                out.writeUTF(student.name);
+                out.writeInt(student.dayCount);
+                for (int i = 0; i < student.dayCount; i++) {
+                    out.writeInt(student.days[i]);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    // Loads rollups.dat into this (empty) object; false when it is missing or can't be used
+    private boolean read() {
+        Path file = directory.resolve(FILE_NAME);
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !in.readUTF().equals(zone.getId()) || in.readLong() != lateAfterMillis) {
+                return false; // Other format or settings: rebuild
+            }
+            records = in.readLong();
+            int courseCount = in.readInt();
+            for (int c = 0; c < courseCount; c++) {
+                Course course = new Course(in.readUTF());
+                int dayCount = in.readInt();
+                for (int d = 0; d < dayCount; d++) {
+                    Day day = new Day(in.readInt());
+                    day.checkIns = in.readInt();
+                    day.present = in.readInt();
+                    day.late = in.readInt();
+                    day.firstTimeIn = in.readLong();
+                    day.lastTimeIn = in.readLong();
+                    course.days.put(day.epochDay, day);
+                    course.checkIns += day.checkIns;
+                    course.late += day.late;
+                }
+                int studentCount = in.readInt();
+                for (int s = 0; s < studentCount; s++) {
+                    Student student = new Student(in.readUTF());
+                    student.dayCount = in.readInt();
+                    student.days = new int[Math.max(8, student.dayCount)];
+                    for (int i = 0; i < student.dayCount; i++) {
+                        student.days[i] = in.readInt();
+                    }
+                    course.students.put(nameKey(student.name), student);
+                }
+                courses.put(courseKey(course.courseYear), course);
+            }
+            synchronized (saveLock) {
+                savedRecords = records;
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Rebuilding attendance roll-ups (" + file + " could not be read: " + e + ")");
+            courses.clear();
+            records = 0;
+            return false;
+        }
+    }
+
+    // ===== Keys =====
+
+    // Same matching as AttendanceIndex: course/year ignores case and surrounding spaces
+    private static String courseKey(String courseYear) {
+        return courseYear.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Names match like AttendanceIndex and DuplicateFilter (AttendanceIndex.fold per character),
+    // so the roll-ups, the Search window and the repeat check agree on who is the same student
+    private static String nameKey(String name) {
+        String trimmed = name.trim();
+        char[] key = null;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char folded = AttendanceIndex.fold(trimmed.charAt(i));
+            if (key == null && folded != trimmed.charAt(i)) {
+                key = trimmed.toCharArray();
+            }
+            if (key != null) {
+                key[i] = folded;
+            }
+        }
+        return key == null ? trimmed : new String(key);
+    }
+
+    private List<Course> single(String courseYear) {
+        Course course = courses.get(courseKey(courseYear));
+        return course == null ? List.of() : List.of(course);
+    }
+}
@@ -0,0 +1,197 @@
+// Import Swing libraries for GUI components
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+// Import AWT for layout management and styling
+import java.awt.*;
+// Import for parsing the date and time filters
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+// Import for running queries off the EDT
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Search panel for recorded attendance, backed by an AttendanceIndex.
+ * Filters: name prefix, Course/Year, date and a From/To time range.
+ *
+ * Typing restarts a short timer; when it fires, the query runs on a
+ * background thread and only the newest query's result is shown, so the
+ * form stays responsive while typing. The table reads names and times
+ * straight from the index for the rows on screen (no object per result).
+ */
+public class AttendanceSearchPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    // Most rows shown in the table; the count label still reports the full total
+    private static final int MAX_ROWS = 500;
+    private static final int DEBOUNCE_MILLIS = 150;
+
+    private final AttendanceIndex index;
+
+    private final JTextField nameField = new JTextField(12);
+    private final JTextField courseField = new JTextField(8);
+    private final JTextField dateField = new JTextField(LocalDate.now().toString(), 8);
+    private final JTextField fromField = new JTextField(5);
+    private final JTextField toField = new JTextField(5);
+    private final JLabel countLabel = new JLabel(" ");
+    private final ResultModel model = new ResultModel();
+
+    private final Timer debounce;
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "attendance-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong latestQuery = new AtomicLong();
+
+    public AttendanceSearchPanel(AttendanceIndex index) {
+        super(new BorderLayout(8, 8));
+        this.index = index;
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // ===== Filter Row =====
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 4));
+        filters.add(new JLabel("Name:"));
+        filters.add(nameField);
+        filters.add(new JLabel("Course/Year:"));
+        filters.add(courseField);
+        filters.add(new JLabel("Date:"));
+        filters.add(dateField);
+        filters.add(new JLabel("From (HH:mm):"));
+        filters.add(fromField);
+        filters.add(new JLabel("To:"));
+        filters.add(toField);
+        add(filters, BorderLayout.NORTH);
+
+        // ===== Results =====
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(countLabel, BorderLayout.SOUTH);
+
+        // Re-run the search shortly after the user stops typing
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> search());
+        debounce.setRepeats(false);
+        DocumentListener restart = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        };
+        for (JTextField field : new JTextField[] { nameField, courseField, dateField, fromField, toField }) {
+            field.getDocument().addDocumentListener(restart);
+        }
+    }
+
+    /**
+     * Runs the search with the current filters (call on the EDT).
+     */
+    public void search() {
+        String name = nameField.getText().trim();
+        String course = courseField.getText().trim();
+        long from;
+        long to;
+        try {
+            long[] range = timeRange(dateField.getText().trim(), fromField.getText().trim(), toField.getText().trim());
+            from = range[0];
+            to = range[1];
+        } catch (DateTimeParseException e) {
+            countLabel.setText("Use yyyy-MM-dd for the date and HH:mm for times");
+            return;
+        }
+
+        long query = latestQuery.incrementAndGet();
+        searcher.execute(() -> {
+            if (query != latestQuery.get()) {
+                return; // A newer query is already waiting
+            }
+            int total = index.count(name, course, from, to);
+            int[] rows = new int[Math.min(total, MAX_ROWS)];
+            int[] found = { 0 };
+            index.scan(name, course, from, to, row -> {
+                rows[found[0]++] = row;
+                return found[0] < rows.length;
+            });
+            SwingUtilities.invokeLater(() -> {
+                if (query == latestQuery.get()) {
+                    model.show(rows, found[0]);
+                    countLabel.setText(total + " matching record(s)" + (total > found[0] ? ", showing first " + found[0] : ""));
+                }
+            });
+        });
+    }
+
+    // Turns the date and From/To filters into an epoch-millis range [from, to)
+    private static long[] timeRange(String date, String fromTime, String toTime) {
+        if (date.isEmpty() && fromTime.isEmpty() && toTime.isEmpty()) {
+            return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        }
+        LocalDate day = date.isEmpty() ? LocalDate.now() : LocalDate.parse(date);
+        LocalTime start = fromTime.isEmpty() ? LocalTime.MIN : LocalTime.parse(fromTime);
+        ZoneId zone = ZoneId.systemDefault();
+        long from = day.atTime(start).atZone(zone).toInstant().toEpochMilli();
+        long to = toTime.isEmpty()
+            ? day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()
+            : day.atTime(LocalTime.parse(toTime)).atZone(zone).toInstant().toEpochMilli();
+        return new long[] { from, to };
+    }
+
+    // Table of row numbers; cell values are read from the index when drawn
+    private final class ResultModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] columns = { "Name", "Course/Year", "Time In" };
+        private int[] rows = new int[0];
+        private int count;
+
+        void show(int[] rows, int count) {
+            this.rows = rows;
+            this.count = count;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return count;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            int row = rows[rowIndex];
+            switch (columnIndex) {
+                case 0:
+                    return index.name(row);
+                case 1:
+                    return index.courseYear(row);
+                default:
+                    return TimeInClock.system().format(index.timeIn(row));
+            }
+        }
+    }
+}
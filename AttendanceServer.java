@@ -0,0 +1,512 @@
+// Import for the embedded HTTP server
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+// Import for reading requests and writing responses
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+// Import for request threads and waiting on the group commit
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless attendance backend shared by many check-in stations.
+ *
+ * Endpoints (form-encoded parameters, JSON responses):
+ * - POST /api/attendance  name, courseYear and optional timeInMillis.
+ *   Returns 201 with the saved record, 400 when a required field is missing
+ *   or too long (same check as the Submit button) or timeInMillis is more
+ *   than MAX_CLOCK_SKEW_MILLIS away from the server's clock, 409 when the same name and course/year
+ *   already checked in that day (see DuplicateFilter) and 503 when the
+ *   pipeline is full.
+ *   When the server has accounts, a password field is also required and a
+ *   wrong name/password pair gets 401.
+ * - GET /api/attendance   name (prefix), courseYear, from, to (epoch millis), limit.
+ * - GET /api/stats        pipeline queue, batch, latency and duplicate numbers.
+ * - GET /api/rollups      courseYear, from, to (yyyy-MM-dd, default today):
+ *   per course/year and day headcount, check-ins, late arrivals and the
+ *   first and last Time In, from AttendanceRollups.
+ * - GET /api/absents      name and courseYear: absents for the grade calculator.
+ *
+ * When the server has accounts, the attendance, roll-up and absents reads
+ * need "Authorization: Bearer <token>" with the token from
+ * -Dattendance.server.token (or ATTENDANCE_SERVER_TOKEN); without a token
+ * configured they are refused. A student may also read their own absents by
+ * logging in with HTTP Basic (name and password). Other reads get 401.
+ * /api/stats only has counts and stays open.
+ *
+ * Check-ins go through an AttendancePipeline like the Swing app. The request
+ * thread waits for the group commit, so a 201 means the record is on disk.
+ * Requests run on virtual threads when the JDK has them (21+), otherwise on
+ * a fixed pool of -Dattendance.server.threads platform threads (default 256).
+ */
+public final class AttendanceServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    /** Queue size for the server's pipeline; large enough to absorb bursts from many stations. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+    private static final int MAX_QUERY_LIMIT = 1000;
+    private static final int MAX_BODY_BYTES = 4096;
+    private static final long COMMIT_TIMEOUT_MILLIS = 10_000;
+
+    /** How far a station's Time In may be from the server's clock (a station clock off by a little is fine). */
+    public static final long MAX_CLOCK_SKEW_MILLIS = 5 * 60_000;
+
+    private final HttpServer server;
+    private final ExecutorService requests;
+    private final AttendancePipeline pipeline;
+    private final AttendanceIndex index;
+    private final AttendanceRollups rollups;
+    private final ESignatureGenerator signatures;
+    private final CredentialStore credentials;     // null = no login required
+    private final byte[] readToken;                // Bearer token for reads with accounts (null = none set)
+    private final TimeInClock clock = TimeInClock.system();
+
+    private AttendanceServer(HttpServer server, ExecutorService requests, AttendancePipeline pipeline,
+                             AttendanceIndex index, AttendanceRollups rollups, ESignatureGenerator signatures,
+                             CredentialStore credentials, String readToken) {
+        this.server = server;
+        this.requests = requests;
+        this.pipeline = pipeline;
+        this.index = index;
+        this.rollups = rollups;
+        this.signatures = signatures;
+        this.credentials = credentials;
+        this.readToken = readToken == null || readToken.isEmpty() ? null : readToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts serving on the given address. The pipeline should be created
+     * with a completion executor that doesn't need the EDT (e.g. Runnable::run).
+     * The index and roll-ups should be commit listeners of the pipeline.
+     * With credentials, every check-in must log in with its name and password,
+     * and reads need the token from -Dattendance.server.token (see the class doc).
+     */
+    public static AttendanceServer start(InetSocketAddress address, AttendancePipeline pipeline,
+                                         AttendanceIndex index, AttendanceRollups rollups,
+                                         ESignatureGenerator signatures,
+                                         CredentialStore credentials) throws IOException {
+        // The JDK server leaves Nagle's algorithm on, which holds back the
+        // response body behind the headers for a delayed ACK (about 40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(address, 1024);
+        ExecutorService requests = newRequestExecutor(Integer.getInteger("attendance.server.threads", 256));
+        AttendanceServer attendance = new AttendanceServer(server, requests, pipeline, index, rollups, signatures,
+            credentials, System.getProperty("attendance.server.token", System.getenv("ATTENDANCE_SERVER_TOKEN")));
+        server.createContext("/api/attendance", attendance::handleAttendance);
+        server.createContext("/api/stats", attendance::handleStats);
+        server.createContext("/api/rollups", attendance::handleRollups);
+        server.createContext("/api/absents", attendance::handleAbsents);
+        server.setExecutor(requests);
+        server.start();
+        return attendance;
+    }
+
+    /**
+     * One virtual thread per task when the running JDK supports it,
+     * otherwise a fixed pool of platform threads.
+     */
+    public static ExecutorService newRequestExecutor(int fallbackThreads) {
+        try {
+            // Looked up by reflection so the code still compiles and runs on JDK 17
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(fallbackThreads, r -> {
+                Thread thread = new Thread(r, "attendance-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /** The port actually bound (useful when started on port 0). */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ===== /api/attendance =====
+
+    private void handleAttendance(HttpExchange exchange) throws IOException {
+        try {
+            if (exchange.getRequestMethod().equals("POST")) {
+                checkIn(exchange);
+            } else if (exchange.getRequestMethod().equals("GET")) {
+                if (mayRead(exchange, null)) {
+                    query(exchange);
+                }
+            } else {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                send(exchange, 405, error("Use GET or POST"));
+            }
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void checkIn(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseForm(readBody(exchange));
+        String name = form.getOrDefault("name", "").trim();
+        String courseYear = form.getOrDefault("courseYear", "").trim();
+        AttendanceSubmissionEvent event = AttendanceSubmissionEvent.begin(AttendanceSubmissionEvent.SERVER, courseYear);
+        long validationStart = System.nanoTime();
+        String problem = AttendanceRecord.validate(name, courseYear);
+        if (problem != null) {
+            Metrics.validated(event, validationStart, false);
+            event.finish(problem.equals(AttendanceRecord.MISSING_FIELDS_MESSAGE)
+                ? AttendanceSubmissionEvent.MISSING_FIELDS : AttendanceSubmissionEvent.FIELD_TOO_LONG);
+            send(exchange, 400, error(problem));
+            return;
+        }
+        // Stations send the Time In they showed; without one the server stamps its own
+        long now = clock.now();
+        long timeIn = form.containsKey("timeInMillis") ? parseLong(form, "timeInMillis") : now;
+        if (Math.abs(timeIn - now) > MAX_CLOCK_SKEW_MILLIS) {
+            Metrics.validated(event, validationStart, false);
+            event.finish(AttendanceSubmissionEvent.TIME_IN_REFUSED);
+            send(exchange, 400, error("Time In is more than " + MAX_CLOCK_SKEW_MILLIS / 60_000
+                + " minutes away from the server's clock. Check the station's date and time."));
+            return;
+        }
+        if (credentials != null) {
+            char[] password = form.getOrDefault("password", "").toCharArray();
+            boolean valid = credentials.verify(name, password);
+            Arrays.fill(password, '\0');
+            if (!valid) {
+                Metrics.validated(event, validationStart, false);
+                event.finish(AttendanceSubmissionEvent.LOGIN_FAILED);
+                send(exchange, 401, error(CredentialStore.INVALID_LOGIN_MESSAGE));
+                return;
+            }
+        }
+        Metrics.validated(event, validationStart, true);
+        AttendanceRecord record = new AttendanceRecord(name, courseYear, timeIn,
+            signatures.next(name, courseYear, timeIn));
+
+        CompletableFuture<AttendanceRecord> saved = new CompletableFuture<>();
+        boolean queued = pipeline.submit(record, (done, failure) -> {
+            if (failure == null) {
+                saved.complete(done);
+            } else {
+                saved.completeExceptionally(failure);
+            }
+        });
+        if (!queued) {
+            // Queue is full: tell the station to retry instead of waiting
+            event.finish(AttendanceSubmissionEvent.BUSY);
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("The attendance system is busy. Please submit again in a moment."));
+            return;
+        }
+        try {
+            StringBuilder json = new StringBuilder(256);
+            appendRecord(json, saved.get(COMMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            event.finish(AttendanceSubmissionEvent.SAVED);
+            send(exchange, 201, json.toString());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DuplicateFilter.DuplicateException) {
+                event.finish(AttendanceSubmissionEvent.DUPLICATE);
+                send(exchange, 409, error(e.getCause().getMessage()));
+                return;
+            }
+            event.finish(AttendanceSubmissionEvent.FAILED);
+            send(exchange, 500, error("Could not save attendance: " + e.getCause().getMessage()));
+        } catch (TimeoutException e) {
+            // Still queued; it may be saved later, so the station must not blindly resubmit
+            event.finish(AttendanceSubmissionEvent.FAILED);
+            send(exchange, 504, error("Attendance was not confirmed in time. Check before submitting again."));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            event.finish(AttendanceSubmissionEvent.FAILED);
+            send(exchange, 503, error("Server is shutting down"));
+        }
+    }
+
+    private void query(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+        String name = params.getOrDefault("name", "").trim();
+        String courseYear = params.getOrDefault("courseYear", "").trim();
+        long from = params.containsKey("from") ? parseLong(params, "from") : Long.MIN_VALUE;
+        long to = params.containsKey("to") ? parseLong(params, "to") : Long.MAX_VALUE;
+        int limit = params.containsKey("limit")
+            ? (int) Math.max(0, Math.min(MAX_QUERY_LIMIT, parseLong(params, "limit")))
+            : DEFAULT_QUERY_LIMIT;
+
+        int total = index.count(name, courseYear, from, to);
+        int[] rows = new int[Math.min(total, limit)];
+        int[] found = { 0 };
+        if (rows.length > 0) {
+            index.scan(name, courseYear, from, to, row -> {
+                rows[found[0]++] = row;
+                return found[0] < rows.length;
+            });
+        }
+
+        StringBuilder json = new StringBuilder(64 + found[0] * 160);
+        json.append("{\"total\":").append(total).append(",\"records\":[");
+        for (int i = 0; i < found[0]; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendRecord(json, index.record(rows[i]));
+        }
+        json.append("]}");
+        send(exchange, 200, json.toString());
+    }
+
+    // ===== /api/stats =====
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            String json = String.format(Locale.ROOT,
+                "{\"queueDepth\":%d,\"queueCapacity\":%d,\"lastBatchSize\":%d,\"averageBatchSize\":%.2f,"
+                    + "\"averageLatencyMillis\":%.3f,\"maxLatencyMillis\":%.3f,\"submitted\":%d,\"rejected\":%d,"
+                    + "\"duplicates\":%d,\"records\":%d}",
+                pipeline.getQueueDepth(), pipeline.getQueueCapacity(), pipeline.getLastBatchSize(),
+                pipeline.getAverageBatchSize(), pipeline.getAverageLatencyMillis(), pipeline.getMaxLatencyMillis(),
+                pipeline.getSubmittedCount(), pipeline.getRejectedCount(), pipeline.getDuplicateCount(),
+                index.size());
+            send(exchange, 200, json);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ===== /api/rollups and /api/absents =====
+
+    private void handleRollups(HttpExchange exchange) throws IOException {
+        try {
+            if (!mayRead(exchange, null)) {
+                return;
+            }
+            Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+            String courseYear = params.getOrDefault("courseYear", "").trim();
+            LocalDate from = params.containsKey("from") ? parseDate(params, "from") : LocalDate.now();
+            LocalDate to = params.containsKey("to") ? parseDate(params, "to") : from;
+
+            List<AttendanceRollups.DayTotals> days = rollups.days(courseYear, from, to);
+            StringBuilder json = new StringBuilder(64 + days.size() * 200);
+            json.append("{\"lateAfter\":\"").append(rollups.getLateAfter()).append("\",\"days\":[");
+            for (int i = 0; i < days.size(); i++) {
+                AttendanceRollups.DayTotals day = days.get(i);
+                json.append(i > 0 ? ",{\"courseYear\":" : "{\"courseYear\":");
+                appendString(json, day.getCourseYear());
+                json.append(",\"day\":\"").append(day.getDay())
+                    .append("\",\"present\":").append(day.getPresent())
+                    .append(",\"checkIns\":").append(day.getCheckIns())
+                    .append(",\"late\":").append(day.getLate())
+                    .append(",\"firstTimeIn\":\"").append(clock.format(day.getFirstTimeIn()))
+                    .append("\",\"lastTimeIn\":\"").append(clock.format(day.getLastTimeIn()))
+                    .append("\"}");
+            }
+            json.append("]}");
+            send(exchange, 200, json.toString());
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleAbsents(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+            String name = params.getOrDefault("name", "").trim();
+            String courseYear = params.getOrDefault("courseYear", "").trim();
+            if (!AttendanceRecord.hasRequiredFields(name, courseYear)) {
+                send(exchange, 400, error(AttendanceRecord.MISSING_FIELDS_MESSAGE));
+                return;
+            }
+            if (!mayRead(exchange, name)) {
+                return;
+            }
+            int absents = rollups.absents(courseYear, name);
+            if (absents == AttendanceRollups.NOT_FOUND) {
+                send(exchange, 404, error("No check-ins by " + name + " in " + courseYear));
+                return;
+            }
+            StringBuilder json = new StringBuilder(128);
+            json.append("{\"name\":");
+            appendString(json, name);
+            json.append(",\"courseYear\":");
+            appendString(json, courseYear);
+            json.append(",\"absents\":").append(absents)
+                .append(",\"daysMet\":").append(rollups.daysMet(courseYear)).append('}');
+            send(exchange, 200, json.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ===== Read access =====
+
+    /**
+     * True when the request may read attendance data; otherwise sends 401 and
+     * returns false. Without accounts every read is allowed. With them, the
+     * server token allows every read, and a login (HTTP Basic) allows reading
+     * studentName's own data (pass null where only the token will do).
+     */
+    private boolean mayRead(HttpExchange exchange, String studentName) throws IOException {
+        if (credentials == null) {
+            return true;
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ") && readToken != null
+            && MessageDigest.isEqual(readToken, authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+        if (authorization != null && authorization.startsWith("Basic ") && studentName != null) {
+            String login;
+            try {
+                login = new String(Base64.getDecoder().decode(authorization.substring(6).trim()), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                login = "";
+            }
+            int colon = login.indexOf(':');
+            if (colon > 0 && login.substring(0, colon).equals(studentName)) {
+                char[] password = login.substring(colon + 1).toCharArray();
+                boolean valid = credentials.verify(studentName, password);
+                Arrays.fill(password, '\0');
+                if (valid) {
+                    return true;
+                }
+            }
+        }
+        exchange.getResponseHeaders().set("WWW-Authenticate", studentName != null
+            ? "Basic realm=\"attendance\", charset=\"UTF-8\"" : "Bearer realm=\"attendance\"");
+        send(exchange, 401, error(studentName != null
+            ? "Log in as " + studentName + " or use the server token to read these absents"
+            : "Reading attendance needs the server token (Authorization: Bearer ...)"));
+        return false;
+    }
+
+    /**
+     * Stops accepting requests, giving running ones up to a second to finish.
+     * The pipeline and journal belong to the caller and stay open.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        requests.shutdown();
+    }
+
+    // ===== Request and response helpers =====
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        byte[] chunk = new byte[512];
+        try (InputStream in = exchange.getRequestBody()) {
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                if (body.size() + n > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+                body.write(chunk, 0, n);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static Map<String, String> parseForm(byte[] body) {
+        return parseForm(new String(body, StandardCharsets.UTF_8));
+    }
+
+    // Parses "a=1&b=two" (URL-encoded) into a map
+    private static Map<String, String> parseForm(String text) {
+        Map<String, String> values = new HashMap<>();
+        if (text == null || text.isEmpty()) {
+            return values;
+        }
+        for (String pair : text.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            values.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static long parseLong(Map<String, String> values, String key) {
+        try {
+            return Long.parseLong(values.get(key).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a whole number");
+        }
+    }
+
+    private static LocalDate parseDate(Map<String, String> values, String key) {
+        try {
+            return LocalDate.parse(values.get(key).trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(key + " must be a date (yyyy-MM-dd)");
+        }
+    }
+
+    private void appendRecord(StringBuilder json, AttendanceRecord record) {
+        json.append("{\"name\":");
+        appendString(json, record.getName());
+        json.append(",\"courseYear\":");
+        appendString(json, record.getCourseYear());
+        json.append(",\"timeIn\":\"").append(clock.format(record.getTimeInMillis()))
+            .append("\",\"timeInMillis\":").append(record.getTimeInMillis())
+            .append(",\"eSignature\":\"").append(record.getESignature()).append("\"}");
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    // Appends a JSON string literal with the required escapes
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
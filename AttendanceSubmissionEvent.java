@@ -0,0 +1,78 @@
+// Import for the custom Flight Recorder event
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one check-in, from the Submit button (or the server
+ * receiving it) until it is saved or refused. Recorded whenever a flight
+ * recording runs, e.g. java -XX:StartFlightRecording=filename=app.jfr ...,
+ * and shown in JDK Mission Control under Attendance.
+ *
+ * The student's name is left out on purpose; recordings get shared.
+ * Without a recording begin() and finish() do next to nothing.
+ */
+@Name("attendance.Submission")
+@Label("Attendance Submission")
+@Category("Attendance")
+@Description("One check-in, from submit until it is saved or refused")
+@StackTrace(false)
+public final class AttendanceSubmissionEvent extends Event {
+
+    /** Where the check-in came from. */
+    public static final String STATION = "station";  // Swing app saving to its own journal
+    public static final String REMOTE = "remote";    // Swing app posting to a server
+    public static final String SERVER = "server";    // POST /api/attendance
+
+    /** How it ended. */
+    public static final String SAVED = "saved";
+    public static final String NOT_SAVED = "not saved (no journal)";
+    public static final String MISSING_FIELDS = "missing fields";
+    public static final String FIELD_TOO_LONG = "field too long";
+    public static final String TIME_IN_REFUSED = "time in refused";
+    public static final String LOGIN_FAILED = "login failed";
+    public static final String BUSY = "busy";
+    public static final String DUPLICATE = "duplicate";
+    public static final String FAILED = "failed";
+
+    @Label("Source")
+    String source;
+
+    @Label("Course/Year")
+    String courseYear;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Validation Time")
+    @Description("Required-field and login checks")
+    @Timespan(Timespan.NANOSECONDS)
+    long validationNanos;
+
+    /** Starts timing a check-in. */
+    public static AttendanceSubmissionEvent begin(String source, String courseYear) {
+        AttendanceSubmissionEvent event = new AttendanceSubmissionEvent();
+        event.source = source;
+        event.courseYear = courseYear;
+        event.begin();
+        return event;
+    }
+
+    /** Stores how long validation took (nanoseconds). */
+    public void validated(long nanos) {
+        validationNanos = nanos;
+    }
+
+    /** Ends the check-in with its outcome and records it if a recording wants it. */
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
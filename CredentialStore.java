@@ -0,0 +1,469 @@
+// Import for password hashing
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+// Import for reading and writing account files
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+// Import for thread safety and statistics
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Username/password accounts for check-in stations.
+ *
+ * Accounts are kept in an open-addressing hash table (linear probing,
+ * power-of-two size, at most half full) keyed by username, so a lookup
+ * touches one or two slots however many accounts there are. Passwords are
+ * never stored: each account keeps a random salt and a PBKDF2-HMAC-SHA256
+ * hash. Usernames are case-sensitive, like the web login.
+ *
+ * A full PBKDF2 check is slow on purpose. So that people who check in again
+ * don't pay it every time, a small cache remembers a SHA-256 digest of
+ * (store key, salt, password) for recent successful logins; a match within
+ * CACHE_TTL_MILLIS skips PBKDF2. Failed logins are never cached, and unknown
+ * usernames still cost one full hash so timing doesn't reveal which exist.
+ *
+ * load() reads either the hashed format written by save() or the plain
+ * listofaccs.txt format ("username: X" / "password: X" line pairs, colon
+ * optional). "java CredentialStore listofaccs.txt accounts.db" converts the
+ * plain file so it no longer has to be kept.
+ */
+public final class CredentialStore {
+
+    /** PBKDF2 iterations used for new password hashes. */
+    public static final int DEFAULT_ITERATIONS = 100_000;
+
+    /** How long a successful login is remembered. */
+    public static final long CACHE_TTL_MILLIS = 10 * 60 * 1000L;
+
+    /** Message shown when a login fails (same text as the web login). */
+    public static final String INVALID_LOGIN_MESSAGE = "Invalid username or password!";
+
+    // First line of a file written by save()
+    private static final String HEADER = "# attendance credential store v1";
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+    private static final int CACHE_SLOTS = 4096;    // Power of two
+    private static final int EMPTY = -1;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ===== Accounts (entry number = index into these arrays) =====
+    private String[] usernames = new String[16];
+    private int[] iterationCounts = new int[16];
+    private byte[] salts = new byte[16 * SALT_BYTES];
+    private byte[] hashes = new byte[16 * HASH_BYTES];
+    private int size;
+
+    // ===== Hash table: slot -> entry, and the username hash for quick mismatches =====
+    private int[] slots = emptySlots(32);
+    private int[] slotHashes = new int[32];
+
+    // ===== Verified-login cache, one slot per (entry mod CACHE_SLOTS) =====
+    private final byte[] cacheKey = new byte[32];   // Random per store
+    private final int[] cacheEntries = emptySlots(CACHE_SLOTS);
+    private final long[] cacheExpires = new long[CACHE_SLOTS];
+    private final byte[] cacheDigests = new byte[CACHE_SLOTS * HASH_BYTES];
+    private final byte[] unknownUserSalt = new byte[SALT_BYTES];
+
+    // ===== Statistics =====
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder fullChecks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public CredentialStore() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    public CredentialStore(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        this.iterations = iterations;
+        random.nextBytes(cacheKey);
+        random.nextBytes(unknownUserSalt);
+    }
+
+    // ===== Loading and saving =====
+
+    /**
+     * Loads accounts from a file written by save() or from the plain
+     * listofaccs.txt format (whose passwords are hashed while loading).
+     */
+    public static CredentialStore load(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (!lines.isEmpty() && lines.get(0).trim().equals(HEADER)) {
+            return loadHashed(lines);
+        }
+        CredentialStore store = new CredentialStore();
+        store.loadPlain(lines);
+        return store;
+    }
+
+    // "username: X" followed by "password: X"; the colon and surrounding spaces are optional
+    private void loadPlain(List<String> lines) throws IOException {
+        String username = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("username")) {
+                username = valueAfter(line, "username");
+            } else if (line.startsWith("password") && username != null) {
+                char[] password = valueAfter(line, "password").toCharArray();
+                try {
+                    put(username, password);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Line " + (i + 1) + ": " + e.getMessage());
+                } finally {
+                    Arrays.fill(password, '\0');
+                }
+                username = null;
+            } else {
+                throw new IOException("Line " + (i + 1) + ": expected \"username: ...\" or \"password: ...\"");
+            }
+        }
+    }
+
+    private static String valueAfter(String line, String key) {
+        String value = line.substring(key.length()).trim();
+        return value.startsWith(":") ? value.substring(1).trim() : value;
+    }
+
+    // One account per line: username <TAB> iterations <TAB> salt <TAB> hash (Base64)
+    private static CredentialStore loadHashed(List<String> lines) throws IOException {
+        CredentialStore store = new CredentialStore();
+        Base64.Decoder base64 = Base64.getDecoder();
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) {
+                continue;
+            }
+            String[] fields = lines.get(i).split("\t");
+            try {
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("expected 4 tab-separated fields");
+                }
+                byte[] salt = base64.decode(fields[2]);
+                byte[] hash = base64.decode(fields[3]);
+                if (salt.length != SALT_BYTES || hash.length != HASH_BYTES) {
+                    throw new IllegalArgumentException("bad salt or hash length");
+                }
+                store.store(fields[0], Integer.parseInt(fields[1]), salt, hash);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Writes every account (salts and hashes only, never passwords).
+     */
+    public void save(Path path) throws IOException {
+        Base64.Encoder base64 = Base64.getEncoder();
+        lock.readLock().lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int entry = 0; entry < size; entry++) {
+                writer.write(usernames[entry]);
+                writer.write('\t');
+                writer.write(Integer.toString(iterationCounts[entry]));
+                writer.write('\t');
+                writer.write(base64.encodeToString(Arrays.copyOfRange(salts, entry * SALT_BYTES, (entry + 1) * SALT_BYTES)));
+                writer.write('\t');
+                writer.write(base64.encodeToString(Arrays.copyOfRange(hashes, entry * HASH_BYTES, (entry + 1) * HASH_BYTES)));
+                writer.newLine();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Accounts =====
+
+    /**
+     * Adds an account or changes its password. The password array is not kept.
+     */
+    public void put(String username, char[] password) {
+        checkUsername(username);
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        store(username, iterations, salt, hash);
+    }
+
+    private void store(String username, int iterationCount, byte[] salt, byte[] hash) {
+        checkUsername(username);
+        if (iterationCount < 1) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        lock.writeLock().lock();
+        try {
+            int entry = find(username);
+            if (entry == EMPTY) {
+                if (size == usernames.length) {
+                    growEntries();
+                }
+                entry = size++;
+                usernames[entry] = username;
+                if (size * 2 > slots.length) {
+                    rehash(slots.length * 2); // Also inserts the new entry
+                } else {
+                    insert(entry, spread(username.hashCode()));
+                }
+            }
+            iterationCounts[entry] = iterationCount;
+            System.arraycopy(salt, 0, salts, entry * SALT_BYTES, SALT_BYTES);
+            System.arraycopy(hash, 0, hashes, entry * HASH_BYTES, HASH_BYTES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        forget(username);
+    }
+
+    public boolean contains(String username) {
+        lock.readLock().lock();
+        try {
+            return username != null && find(username) != EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Login =====
+
+    /**
+     * Returns true when the username exists and the password is right.
+     * Safe to call from many threads; the password array is not kept.
+     */
+    public boolean verify(String username, char[] password) {
+        int entry;
+        int iterationCount;
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] expected = new byte[HASH_BYTES];
+        lock.readLock().lock();
+        try {
+            entry = username == null ? EMPTY : find(username);
+            if (entry != EMPTY) {
+                iterationCount = iterationCounts[entry];
+                System.arraycopy(salts, entry * SALT_BYTES, salt, 0, SALT_BYTES);
+                System.arraycopy(hashes, entry * HASH_BYTES, expected, 0, HASH_BYTES);
+            } else {
+                iterationCount = iterations;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entry == EMPTY) {
+            pbkdf2(password, unknownUserSalt, iterationCount); // Same cost as a real check
+            failures.increment();
+            return false;
+        }
+
+        // Recently verified with this exact password: skip PBKDF2
+        byte[] digest = cacheDigest(salt, password);
+        long now = System.currentTimeMillis();
+        if (cached(entry, digest, now)) {
+            cacheHits.increment();
+            return true;
+        }
+
+        fullChecks.increment();
+        if (!MessageDigest.isEqual(pbkdf2(password, salt, iterationCount), expected)) {
+            failures.increment();
+            return false;
+        }
+        remember(entry, digest, now + CACHE_TTL_MILLIS);
+        return true;
+    }
+
+    /** Logins answered from the cache. */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /** Logins that ran the full PBKDF2 check. */
+    public long getFullChecks() {
+        return fullChecks.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    // ===== Hash table internals (callers hold the lock) =====
+
+    private int find(String username) {
+        int hash = spread(username.hashCode());
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return EMPTY;
+            }
+            if (slotHashes[slot] == hash && usernames[entry].equals(username)) {
+                return entry;
+            }
+        }
+    }
+
+    private void insert(int entry, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+        slotHashes[slot] = hash;
+    }
+
+    private void rehash(int capacity) {
+        slots = emptySlots(capacity);
+        slotHashes = new int[capacity];
+        for (int entry = 0; entry < size; entry++) {
+            insert(entry, spread(usernames[entry].hashCode()));
+        }
+    }
+
+    private void growEntries() {
+        int capacity = usernames.length * 2;
+        usernames = Arrays.copyOf(usernames, capacity);
+        iterationCounts = Arrays.copyOf(iterationCounts, capacity);
+        salts = Arrays.copyOf(salts, capacity * SALT_BYTES);
+        hashes = Arrays.copyOf(hashes, capacity * HASH_BYTES);
+    }
+
+    // Mixes the high bits into the low ones, which pick the slot
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] emptySlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static void checkUsername(String username) {
+        if (username == null || username.isEmpty()) {
+            throw new IllegalArgumentException("username is empty");
+        }
+        for (int i = 0; i < username.length(); i++) {
+            if (username.charAt(i) == '\t' || username.charAt(i) == '\n' || username.charAt(i) == '\r') {
+                throw new IllegalArgumentException("username contains a tab or line break");
+            }
+        }
+    }
+
+    // ===== Cache internals =====
+
+    private byte[] cacheDigest(byte[] salt, char[] password) {
+        MessageDigest sha = SHA_256.get();
+        sha.update(cacheKey);
+        sha.update(salt);
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        sha.update(encoded.duplicate());
+        Arrays.fill(encoded.array(), (byte) 0);
+        return sha.digest();
+    }
+
+    private boolean cached(int entry, byte[] digest, long now) {
+        int slot = entry & (CACHE_SLOTS - 1);
+        synchronized (cacheEntries) {
+            if (cacheEntries[slot] != entry || cacheExpires[slot] < now) {
+                return false;
+            }
+            int diff = 0;
+            for (int i = 0; i < HASH_BYTES; i++) {
+                diff |= cacheDigests[slot * HASH_BYTES + i] ^ digest[i];
+            }
+            return diff == 0;
+        }
+    }
+
+    private void remember(int entry, byte[] digest, long expires) {
+        int slot = entry & (CACHE_SLOTS - 1);
+        synchronized (cacheEntries) {
+            cacheEntries[slot] = entry;
+            cacheExpires[slot] = expires;
+            System.arraycopy(digest, 0, cacheDigests, slot * HASH_BYTES, HASH_BYTES);
+        }
+    }
+
+    // Drops a cached login after a password change
+    private void forget(String username) {
+        int entry;
+        lock.readLock().lock();
+        try {
+            entry = find(username);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int slot = entry & (CACHE_SLOTS - 1);
+        synchronized (cacheEntries) {
+            if (cacheEntries[slot] == entry) {
+                cacheEntries[slot] = EMPTY;
+            }
+        }
+    }
+
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterationCount) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterationCount, HASH_BYTES * 8);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Converts a plain listofaccs.txt file into the hashed format:
+     * java CredentialStore listofaccs.txt accounts.db
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java CredentialStore <listofaccs.txt> <accounts.db>");
+            System.exit(2);
+        }
+        CredentialStore store = load(Paths.get(args[0]));
+        store.save(Paths.get(args[1]));
+        System.out.println("Saved " + store.size() + " hashed accounts to " + args[1]);
+    }
+}
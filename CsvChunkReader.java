@@ -0,0 +1,390 @@
+// Import for channel-based file reading
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader for files of any size.
+ * The file is read through a FileChannel in fixed-size chunks; a row that
+ * crosses the end of a chunk is moved to the front of the buffer before the
+ * next chunk is read, so memory use stays the same for a 1 KB or 10 GB file.
+ *
+ * next() finds the field boundaries of the next row without creating any
+ * objects. Numeric fields are parsed straight from the bytes (parseInt,
+ * parseLong, parseDouble); only string(field) creates a String.
+ * Fields may be quoted ("...", with "" for a quote inside); rows end with
+ * LF or CRLF, and quoted fields can't span lines.
+ */
+public final class CsvChunkReader implements AutoCloseable {
+
+    /** Default chunk size read from the file at a time. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final int MAX_FIELDS = 64;
+
+    // Exact powers of ten for the fast decimal path
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;          // Backing array of buffer
+    private int limit;             // End of valid data in bytes
+    private int position;          // Start of the next row
+    private boolean endOfFile;
+
+    // Field boundaries of the current row: field i is bytes[starts[i], ends[i])
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private final boolean[] quoted = new boolean[MAX_FIELDS];
+    private int fieldCount;
+    private long rowNumber;
+
+    public CsvChunkReader(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvChunkReader(Path path, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(chunkSize);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Moves to the next non-empty row. Returns false at the end of the file.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int lineEnd = findLineEnd(position);
+            if (lineEnd < 0) {
+                if (endOfFile) {
+                    if (position >= limit) {
+                        return false;
+                    }
+                    lineEnd = limit; // Last row without a newline
+                } else {
+                    refill();
+                    continue;
+                }
+            }
+            int rowStart = position;
+            int rowEnd = lineEnd > rowStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            position = lineEnd < limit ? lineEnd + 1 : limit;
+            if (rowEnd == rowStart) {
+                continue; // Blank line
+            }
+            rowNumber++;
+            splitFields(rowStart, rowEnd);
+            return true;
+        }
+    }
+
+    /** 1-based number of the current (non-blank) row, for error messages. */
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** Number of bytes in the field (without surrounding quotes). */
+    public int fieldLength(int field) {
+        check(field);
+        return ends[field] - starts[field];
+    }
+
+    public boolean isEmpty(int field) {
+        return fieldLength(field) == 0;
+    }
+
+    /** Returns the field as a String (the only accessor that allocates). */
+    public String string(int field) {
+        check(field);
+        String text = new String(bytes, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        return quoted[field] ? text.replace("\"\"", "\"") : text;
+    }
+
+    /** True when the field's bytes equal the given ASCII text (ignoring case). */
+    public boolean fieldEqualsIgnoreCase(int field, String ascii) {
+        check(field);
+        int length = ends[field] - starts[field];
+        if (length != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int a = bytes[starts[field] + i] | 0x20;
+            int b = ascii.charAt(i) | 0x20;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Copies the field's raw bytes (as they appear in the file, unescaped quotes included) into a writer. */
+    public void copyTo(int field, CsvChunkWriter writer) throws IOException {
+        check(field);
+        writer.rawField(bytes, starts[field], ends[field] - starts[field], quoted[field]);
+    }
+
+    /** Copies the field's raw bytes into dst at offset; returns the number of bytes copied. */
+    public int copyBytes(int field, byte[] dst, int offset) {
+        check(field);
+        int length = ends[field] - starts[field];
+        System.arraycopy(bytes, starts[field], dst, offset, length);
+        return length;
+    }
+
+    public boolean isQuoted(int field) {
+        check(field);
+        return quoted[field];
+    }
+
+    public int parseInt(int field) {
+        long value = parseLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error(field, "number out of int range");
+        }
+        return (int) value;
+    }
+
+    public long parseLong(int field) {
+        check(field);
+        int i = trimStart(field);
+        int end = trimEnd(field);
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw error(field, "expected a whole number");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw error(field, "expected a whole number");
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw error(field, "number too large");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a decimal number. Plain decimals with up to 15 significant digits
+     * are converted directly (same result as Double.parseDouble); anything
+     * else (exponents, very long numbers) falls back to Double.parseDouble.
+     */
+    public double parseDouble(int field) {
+        check(field);
+        int i = trimStart(field);
+        int end = trimEnd(field);
+        int start = i;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenPoint) {
+                        scale++;
+                    }
+                    continue; // Leading zeros don't count as significant digits
+                }
+                if (++digits > 15) {
+                    return slowParseDouble(field, start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return slowParseDouble(field, start, end);
+            }
+        }
+        if (!seenDigit) {
+            throw error(field, "expected a number");
+        }
+        if (scale > 22) {
+            return slowParseDouble(field, start, end);
+        }
+        // Both values are exact doubles, so one division gives the correctly rounded result
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /** Returns the high 64 bits of a UUID field (8-4-4-4-12 hex form). */
+    public long parseUuidMsb(int field) {
+        return parseUuidHalf(field, 0);
+    }
+
+    /** Returns the low 64 bits of a UUID field (8-4-4-4-12 hex form). */
+    public long parseUuidLsb(int field) {
+        return parseUuidHalf(field, 16);
+    }
+
+    // Reads 16 hex digits starting at the given digit index, skipping dashes
+    private long parseUuidHalf(int field, int firstDigit) {
+        check(field);
+        int end = trimEnd(field);
+        long value = 0;
+        int digit = 0;
+        for (int i = trimStart(field); i < end; i++) {
+            byte b = bytes[i];
+            if (b == '-') {
+                continue;
+            }
+            int nibble = Character.digit(b, 16);
+            if (nibble < 0) {
+                throw error(field, "expected a UUID");
+            }
+            if (digit >= firstDigit && digit < firstDigit + 16) {
+                value = (value << 4) | nibble;
+            }
+            digit++;
+        }
+        if (digit != 32) {
+            throw error(field, "expected a UUID");
+        }
+        return value;
+    }
+
+    private double slowParseDouble(int field, int start, int end) {
+        try {
+            return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw error(field, "expected a number");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ===== Internals =====
+
+    // Index of the next '\n' at or after from, or -1 if not in the buffer yet
+    private int findLineEnd(int from) {
+        for (int i = from; i < limit; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Moves the partial row to the front and reads the next chunk after it
+    private void refill() throws IOException {
+        int remaining = limit - position;
+        if (position == 0 && remaining == bytes.length) {
+            // One row is bigger than the whole buffer: grow it
+            buffer = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length * 2));
+            bytes = buffer.array();
+        } else {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        buffer.clear().position(limit);
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void splitFields(int start, int end) {
+        fieldCount = 0;
+        int i = start;
+        while (true) {
+            if (fieldCount == MAX_FIELDS) {
+                throw new IllegalArgumentException("Row " + rowNumber + ": more than " + MAX_FIELDS + " fields");
+            }
+            int field = fieldCount++;
+            if (i < end && bytes[i] == '"') {
+                // Quoted field: runs to the closing quote ("" is an escaped quote)
+                int j = i + 1;
+                while (j < end) {
+                    if (bytes[j] == '"') {
+                        if (j + 1 < end && bytes[j + 1] == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                starts[field] = i + 1;
+                ends[field] = Math.min(j, end);
+                quoted[field] = true;
+                i = j + 1;
+                while (i < end && bytes[i] != ',') {
+                    i++; // Skip anything between the closing quote and the comma
+                }
+            } else {
+                int j = i;
+                while (j < end && bytes[j] != ',') {
+                    j++;
+                }
+                starts[field] = i;
+                ends[field] = j;
+                quoted[field] = false;
+                i = j;
+            }
+            if (i >= end) {
+                return;
+            }
+            i++; // Skip the comma
+        }
+    }
+
+    private int trimStart(int field) {
+        int i = starts[field];
+        while (i < ends[field] && bytes[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private int trimEnd(int field) {
+        int i = ends[field];
+        while (i > starts[field] && bytes[i - 1] == ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    private void check(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IllegalArgumentException("Row " + rowNumber + ": missing field " + (field + 1));
+        }
+    }
+
+    private IllegalArgumentException error(int field, String message) {
+        return new IllegalArgumentException("Row " + rowNumber + ", field " + (field + 1) + ": " + message);
+    }
+}
@@ -0,0 +1,225 @@
+// Import for channel-based file writing
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Streaming CSV writer.
+ * Rows are encoded into one reused buffer that is written to a FileChannel
+ * whenever it fills up, so the whole file is never held in memory.
+ * Numbers, Time In values and E-Signatures are written digit by digit into
+ * the buffer, without building Strings first.
+ */
+public final class CsvChunkWriter implements AutoCloseable {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private int position;
+    private boolean rowStarted;     // A field was already written on this row
+    private final byte[] scratch = new byte[24];
+
+    public CsvChunkWriter(Path path) throws IOException {
+        this(path, CsvChunkReader.DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvChunkWriter(Path path, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(Math.max(chunkSize, 64));
+        this.bytes = buffer.array();
+    }
+
+    /** Writes a text field, quoting it if it contains a comma, quote or line break. */
+    public CsvChunkWriter text(String value) throws IOException {
+        separator();
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            return ascii(value) ? putAscii(value) : putBytes(value.getBytes(StandardCharsets.UTF_8), 0, -1);
+        }
+        put((byte) '"');
+        putBytes(value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8), 0, -1);
+        put((byte) '"');
+        return this;
+    }
+
+    /**
+     * Writes a field copied from a CsvChunkReader as raw bytes.
+     * Quoted fields are written back quoted, so escaped quotes stay escaped.
+     */
+    public CsvChunkWriter rawField(byte[] source, int offset, int length, boolean quoted) throws IOException {
+        separator();
+        if (quoted) {
+            put((byte) '"');
+        }
+        putBytes(source, offset, length);
+        if (quoted) {
+            put((byte) '"');
+        }
+        return this;
+    }
+
+    public CsvChunkWriter number(long value) throws IOException {
+        separator();
+        return putLong(value);
+    }
+
+    /** Writes the value with exactly 2 decimals, like "%.2f". */
+    public CsvChunkWriter fixed2(double value) throws IOException {
+        separator();
+        long key = Fixed2.key(value);
+        if (key == Fixed2.NONE) {
+            return putAscii(Fixed2.format(value));
+        }
+        if (Fixed2.isNegative(key)) {
+            put((byte) '-');
+        }
+        long cents = Fixed2.cents(key);
+        putLong(cents / 100);
+        put((byte) '.');
+        long fraction = cents % 100;
+        put((byte) ('0' + fraction / 10));
+        return put((byte) ('0' + fraction % 10));
+    }
+
+    /** Writes a Time In value as "yyyy-MM-dd HH:mm:ss". */
+    public CsvChunkWriter timeIn(long epochMillis, TimeInClock clock) throws IOException {
+        separator();
+        ensure(TimeInClock.LENGTH);
+        position = clock.formatTo(epochMillis, bytes, position);
+        return this;
+    }
+
+    /** Writes an E-Signature in the usual 8-4-4-4-12 UUID form. */
+    public CsvChunkWriter signature(long msb, long lsb) throws IOException {
+        separator();
+        ensure(36);
+        putHex(msb >>> 32, 8);
+        bytes[position++] = '-';
+        putHex(msb >>> 16, 4);
+        bytes[position++] = '-';
+        putHex(msb, 4);
+        bytes[position++] = '-';
+        putHex(lsb >>> 48, 4);
+        bytes[position++] = '-';
+        putHex(lsb, 12);
+        return this;
+    }
+
+    public CsvChunkWriter signature(UUID signature) throws IOException {
+        return signature(signature.getMostSignificantBits(), signature.getLeastSignificantBits());
+    }
+
+    /** Ends the current row. */
+    public CsvChunkWriter endRow() throws IOException {
+        rowStarted = false;
+        return put((byte) '\n');
+    }
+
+    /** Writes out whatever is buffered. */
+    public void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ===== Internals =====
+
+    private void separator() throws IOException {
+        if (rowStarted) {
+            put((byte) ',');
+        }
+        rowStarted = true;
+    }
+
+    private void ensure(int space) throws IOException {
+        if (position + space > bytes.length) {
+            flush();
+        }
+    }
+
+    private CsvChunkWriter put(byte b) throws IOException {
+        ensure(1);
+        bytes[position++] = b;
+        return this;
+    }
+
+    // length -1 means "to the end of source"
+    private CsvChunkWriter putBytes(byte[] source, int offset, int length) throws IOException {
+        int remaining = length < 0 ? source.length - offset : length;
+        while (remaining > 0) {
+            ensure(1);
+            int n = Math.min(remaining, bytes.length - position);
+            System.arraycopy(source, offset, bytes, position, n);
+            position += n;
+            offset += n;
+            remaining -= n;
+        }
+        return this;
+    }
+
+    private CsvChunkWriter putAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+        return this;
+    }
+
+    private CsvChunkWriter putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return putAscii(Long.toString(value));
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int i = scratch.length;
+        do {
+            scratch[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return putBytes(scratch, i, scratch.length - i);
+    }
+
+    // Writes the low (digits x 4) bits of value as lower-case hex
+    private void putHex(long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            bytes[position + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        position += digits;
+    }
+
+    private static boolean ascii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
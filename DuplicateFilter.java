@@ -0,0 +1,306 @@
+// Import for time windows
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+// Import for the lock-free bit array and statistics
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spots repeated check-ins: the same name (ignoring case and surrounding
+ * spaces) and course/year within one time window, by default one calendar
+ * day (-Dattendance.dedup.window, an ISO-8601 duration such as P1D or PT2H;
+ * "off" turns checking off). Windows are fixed and back to back (not a
+ * sliding "last 2 hours"), counted in local time from 1970-01-01 00:00, so a
+ * window that divides a day (P1D, PT2H, PT8H...) starts at local midnight
+ * and a check-in repeats only within the same window.
+ *
+ * Each window has a Bloom filter: (name, course/year, window) is hashed once,
+ * and five bits of one 64-bit word of an AtomicLongArray stand for the key.
+ * - mightContain() is a single volatile read, lock-free and allocation-free
+ *   for ASCII course/years. "No" is certain, which is the answer for nearly every
+ *   check-in.
+ * - add() sets the key's bits with one compare-and-set and tells whether any
+ *   of them was still clear, i.e. whether the key is certainly new. Only one
+ *   of several racing callers can see that.
+ * A "maybe" (a real repeat, or about 0.4% of new keys at the expected load)
+ * is confirmed exactly with isSaved(), a lookup in the AttendanceIndex that
+ * already holds every saved record, so no per-key set is kept besides it.
+ *
+ * Memory stays fixed: about 2 bytes per expected key
+ * (-Dattendance.dedup.expected, default 262144) for each of the two newest
+ * windows, whatever the number of check-ins. More keys than expected only
+ * raise the false positive rate, i.e. the number of exact lookups.
+ * Check-ins for older windows, or for windows ahead of the clock (a station
+ * with a wrong date), are always confirmed in the index.
+ */
+public final class DuplicateFilter {
+
+    /** Completion error for a check-in already saved in the same window. */
+    public static final class DuplicateException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public DuplicateException(String message) {
+            super(message);
+        }
+    }
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofDays(1);
+    public static final int DEFAULT_EXPECTED_KEYS = 262_144;
+
+    // Bits per key in its word, and words per expected key (16 bits per key)
+    private static final int BITS_PER_KEY = 5;
+    private static final int KEYS_PER_WORD = 4;
+
+    private static final DateTimeFormatter WINDOW_START_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // One window's bits; replaced, never cleared, so readers never see it emptied
+    private static final class Generation {
+        final long window;
+        final AtomicLongArray words;
+
+        Generation(long window, int wordCount) {
+            this.window = window;
+            this.words = new AtomicLongArray(wordCount);
+        }
+    }
+
+    private final AttendanceIndex index;
+    private final ZoneId zone;
+    private final long windowMillis;
+    private final int wordCount;           // Power of two
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    // ===== Statistics =====
+    private final LongAdder exactChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Creates a filter whose exact checks look in the given index
+     * (which should be a commit listener of the same pipeline).
+     */
+    public DuplicateFilter(AttendanceIndex index, ZoneId zone, Duration window, int expectedKeys) {
+        if (window.toMillis() <= 0) {
+            throw new IllegalArgumentException("Duplicate window must be positive");
+        }
+        this.index = index;
+        this.zone = zone;
+        this.windowMillis = window.toMillis();
+        this.wordCount = Integer.highestOneBit(Math.max(64, expectedKeys / KEYS_PER_WORD) * 2 - 1);
+        this.current = new Generation(windowOf(System.currentTimeMillis()), wordCount);
+        this.previous = new Generation(current.window - 1, wordCount);
+    }
+
+    /**
+     * The filter configured by -Dattendance.dedup.window and
+     * -Dattendance.dedup.expected, or null when checking is "off".
+     */
+    public static DuplicateFilter fromSystemProperties(AttendanceIndex index) {
+        String window = System.getProperty("attendance.dedup.window", "").trim();
+        if (window.equalsIgnoreCase("off")) {
+            return null;
+        }
+        try {
+            return new DuplicateFilter(index, ZoneId.systemDefault(),
+                window.isEmpty() ? DEFAULT_WINDOW : Duration.parse(window),
+                Integer.getInteger("attendance.dedup.expected", DEFAULT_EXPECTED_KEYS));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("attendance.dedup.window must be like P1D or PT2H, or off");
+        }
+    }
+
+    /**
+     * False when the record's name and course/year certainly have not been
+     * added in its window yet. Never blocks.
+     */
+    public boolean mightContain(AttendanceRecord record) {
+        long window = windowOf(record.getTimeInMillis());
+        Generation generation = generationFor(window);
+        if (generation == null) {
+            return false; // No bits for this window: newer than any check-in, or too old to know
+        }
+        long hash = hash(record, window);
+        long mask = mask(hash);
+        return (generation.words.get(wordIndex(hash)) & mask) == mask;
+    }
+
+    /**
+     * Adds the record's key to its window and returns true when it was
+     * certainly not there before. False means "maybe": confirm with isSaved().
+     * A newer window replaces the oldest one, up to the window after the
+     * current time; a record dated later never moves the filter ahead.
+     */
+    public boolean add(AttendanceRecord record) {
+        long window = windowOf(record.getTimeInMillis());
+        Generation generation = generationFor(window);
+        if (generation == null) {
+            if (window < previous.window || window > windowOf(System.currentTimeMillis()) + 1) {
+                return false; // Too old to keep bits for, or ahead of the clock
+            }
+            generation = advanceTo(window);
+        }
+        long hash = hash(record, window);
+        long mask = mask(hash);
+        int word = wordIndex(hash);
+        long old;
+        do {
+            old = generation.words.get(word);
+            if ((old & mask) == mask) {
+                return false;
+            }
+        } while (!generation.words.compareAndSet(word, old, old | mask));
+        return true;
+    }
+
+    /**
+     * Exact check: true when the index already holds a record with the same
+     * name and course/year in the record's window.
+     */
+    public boolean isSaved(AttendanceRecord record) {
+        exactChecks.increment();
+        Metrics.DEDUP_EXACT_CHECKS.increment();
+        long window = windowOf(record.getTimeInMillis());
+        boolean saved = index.contains(record.getName(), record.getCourseYear(), startOf(window), startOf(window + 1));
+        if (!saved) {
+            falsePositives.increment();
+        }
+        return saved;
+    }
+
+    /** True when both records have the same name, course/year and window. */
+    public boolean isSameKey(AttendanceRecord a, AttendanceRecord b) {
+        return windowOf(a.getTimeInMillis()) == windowOf(b.getTimeInMillis())
+            && a.getName().trim().equalsIgnoreCase(b.getName().trim())
+            && a.getCourseYear().trim().toUpperCase(Locale.ROOT).equals(b.getCourseYear().trim().toUpperCase(Locale.ROOT));
+    }
+
+    /** Message for the user when the record is a repeat. */
+    public String describe(AttendanceRecord record) {
+        String since = windowMillis == DEFAULT_WINDOW.toMillis() ? " today."
+            : " since " + WINDOW_START_FORMAT.format(Instant.ofEpochMilli(startOf(windowOf(record.getTimeInMillis())))
+                .atZone(zone)) + ".";
+        return record.getName().trim() + " (" + record.getCourseYear().trim() + ") has already checked in" + since;
+    }
+
+    /** Exact lookups made because the filter answered "maybe". */
+    public long getExactCheckCount() {
+        return exactChecks.sum();
+    }
+
+    /**
+     * Exact lookups that found nothing: Bloom filter false positives, plus
+     * repeats checked by submit() while the first one was still being saved.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /** Bytes of bit array per window. */
+    public long getBytesPerWindow() {
+        return wordCount * 8L;
+    }
+
+    // ===== Windows =====
+
+    private long windowOf(long epochMillis) {
+        long local = epochMillis + zone.getRules().getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(local, windowMillis);
+    }
+
+    // First epoch millisecond of a window
+    private long startOf(long window) {
+        long local = window * windowMillis;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(local, 1000), Math.floorMod(local, 1000) * 1_000_000,
+            ZoneOffset.UTC).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private Generation generationFor(long window) {
+        Generation newest = current;
+        if (newest.window == window) {
+            return newest;
+        }
+        Generation older = previous;
+        return older.window == window ? older : null;
+    }
+
+    // Rare (once per window), so a lock is fine here
+    private synchronized Generation advanceTo(long window) {
+        Generation newest = current;
+        if (window > newest.window) {
+            Generation next = new Generation(window, wordCount);
+            previous = window == newest.window + 1 ? newest : new Generation(window - 1, wordCount);
+            current = next;
+        }
+        return generationFor(window);
+    }
+
+    // ===== Hashing =====
+
+    private static long hash(AttendanceRecord record, long window) {
+        long h = window * 0x9E3779B97F4A7C15L;
+        h = hashText(h, record.getName(), false);
+        h = (h ^ 0x1F) * 0x100000001B3L;   // Separator, so "ab"+"c" differs from "a"+"bc"
+        h = hashText(h, record.getCourseYear(), true);
+        // Final mix (MurmurHash3 fmix64) so every bit depends on every character
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // FNV-1a over the trimmed text, folded the way AttendanceIndex matches it:
+    // names character by character (AttendanceIndex.fold), courses upper-cased.
+    // ASCII courses are folded in place; anything else goes through
+    // String.toUpperCase so the result matches the index's course key.
+    private static long hashText(long h, String text, boolean upper) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (!upper) {
+            for (int i = start; i < end; i++) {
+                h = (h ^ AttendanceIndex.fold(text.charAt(i))) * 0x100000001B3L;
+            }
+            return h;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) >= 0x80) {
+                String folded = text.substring(start, end).toUpperCase(Locale.ROOT);
+                for (int j = 0; j < folded.length(); j++) {
+                    h = (h ^ folded.charAt(j)) * 0x100000001B3L;
+                }
+                return h;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c ^= 0x20;
+            }
+            h = (h ^ c) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private int wordIndex(long hash) {
+        return (int) (hash >>> 40) & (wordCount - 1);
+    }
+
+    // Five bit positions from the low 30 bits of the hash
+    private static long mask(long hash) {
+        long mask = 0;
+        for (int i = 0; i < BITS_PER_KEY; i++) {
+            mask |= 1L << ((hash >>> (6 * i)) & 63);
+        }
+        return mask;
+    }
+}
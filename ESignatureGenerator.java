@@ -0,0 +1,57 @@
+// Import for the E-Signature value
+import java.util.UUID;
+
+/**
+ * Creates E-Signatures for attendance records.
+ * The mode is chosen with -Dattendance.signature:
+ * - "random"  : UUID.randomUUID() (the original behaviour)
+ * - "v7"      : time-ordered UUIDv7 from per-thread state (default);
+ *               no shared lock, and IDs sort by check-in time
+ * - "hmac"    : HMAC-SHA256 of name, course/year and time in, so a record's
+ *               signature can be verified later (key from -Dattendance.hmacKey
+ *               or the ATTENDANCE_HMAC_KEY environment variable)
+ */
+public interface ESignatureGenerator {
+
+    /**
+     * Returns the E-Signature for a record with the given details.
+     * Generators that are not content-bound ignore the arguments.
+     */
+    UUID next(String name, String courseYear, long timeInMillis);
+
+    /**
+     * True when the signature depends on the record's contents, so it can only
+     * be made once name and course/year are known (at submit time).
+     */
+    default boolean isContentBound() {
+        return false;
+    }
+
+    /**
+     * Checks that the record's E-Signature is genuine.
+     * Generators without a secret can't tell, so they accept every record.
+     */
+    default boolean verify(AttendanceRecord record) {
+        return true;
+    }
+
+    /**
+     * Returns the generator selected by the attendance.signature system property.
+     */
+    static ESignatureGenerator fromSystemProperties() {
+        return forMode(System.getProperty("attendance.signature", "v7"));
+    }
+
+    static ESignatureGenerator forMode(String mode) {
+        switch (mode) {
+            case "random":
+                return new RandomESignatureGenerator();
+            case "v7":
+                return new TimeOrderedESignatureGenerator();
+            case "hmac":
+                return HmacESignatureGenerator.fromConfiguredKey();
+            default:
+                throw new IllegalArgumentException("Unknown E-Signature mode: " + mode + " (use random, v7 or hmac)");
+        }
+    }
+}
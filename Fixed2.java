@@ -0,0 +1,97 @@
+// Import for the rare values the fast path can't decide
+import java.util.Locale;
+
+/**
+ * Two-decimal formatting that gives exactly the text of
+ * String.format(Locale.ROOT, "%.2f", value), without going through
+ * java.util.Formatter.
+ *
+ * Formatter rounds the shortest decimal form of the double half-up, so
+ * 155.325 becomes "155.33" even though the double is slightly below it.
+ * The fast path rounds value x 100; only when that product lands so close
+ * to a .5 that the two could disagree are the shortest digits rounded
+ * the way Formatter does it.
+ *
+ * key() is the rounded value as one long: equal keys give equal text,
+ * which makes it usable as a cache key. Negative values use ~cents so
+ * that "-0.00" and "0.00" stay different.
+ */
+public final class Fixed2 {
+
+    /** key() of values that are not finite or too large for the fast path. */
+    public static final long NONE = Long.MIN_VALUE;
+
+    // Beyond this, value x 100 can be off by more than the tie margin below
+    private static final double FAST_LIMIT = 1e7;
+    private static final double TIE_MARGIN = 1e-5;
+
+    private Fixed2() {
+        // Only static methods
+    }
+
+    /**
+     * The value rounded to cents like "%.2f" does: cents for positive
+     * values, ~cents for negative ones, or NONE.
+     */
+    public static long key(double value) {
+        if (!(Math.abs(value) < FAST_LIMIT)) {
+            return NONE; // Also NaN
+        }
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        double scaled = Math.abs(value) * 100;
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        long cents;
+        if (Math.abs(fraction - 0.5) < TIE_MARGIN) {
+            cents = slowCents(value);
+        } else {
+            cents = (long) whole + (fraction > 0.5 ? 1 : 0);
+        }
+        return negative ? ~cents : cents;
+    }
+
+    /** True when the key is for a negative value (text starts with '-'). */
+    public static boolean isNegative(long key) {
+        return key < 0;
+    }
+
+    /** Absolute value in cents of a key other than NONE. */
+    public static long cents(long key) {
+        return key < 0 ? ~key : key;
+    }
+
+    /** Same text as String.format(Locale.ROOT, "%.2f", value). */
+    public static String format(double value) {
+        long key = key(value);
+        return key == NONE ? String.format(Locale.ROOT, "%.2f", value) : format(key);
+    }
+
+    /** Text for a key other than NONE. */
+    public static String format(long key) {
+        long cents = cents(key);
+        long fraction = cents % 100;
+        return (key < 0 ? "-" : "") + (cents / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    // Cents for values right at a rounding tie: Formatter rounds the
+    // shortest decimal digits (those of Double.toString) half-up
+    private static long slowCents(double value) {
+        String text = Double.toString(Math.abs(value));   // Plain "123.4567" in the fast range
+        int dot = text.indexOf('.');
+        if (dot < 0 || text.indexOf('E') >= 0) {
+            String formatted = String.format(Locale.ROOT, "%.2f", Math.abs(value));
+            dot = formatted.indexOf('.');
+            return Long.parseLong(formatted.substring(0, dot)) * 100 + Long.parseLong(formatted.substring(dot + 1));
+        }
+        long cents = Long.parseLong(text.substring(0, dot)) * 100;
+        cents += digit(text, dot + 1) * 10 + digit(text, dot + 2);
+        if (digit(text, dot + 3) >= 5) {
+            cents++;
+        }
+        return cents;
+    }
+
+    private static int digit(String text, int index) {
+        return index < text.length() ? text.charAt(index) - '0' : 0;
+    }
+}
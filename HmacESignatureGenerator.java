@@ -0,0 +1,102 @@
+// Import for HMAC-SHA256
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+// Import for the E-Signature value
+import java.util.UUID;
+
+/**
+ * E-Signatures that are an HMAC-SHA256 over (name, course/year, time in).
+ * Each text field is preceded by its UTF-8 length (4 bytes), so no two
+ * different records feed the MAC the same bytes: without it, ("a\nb", "c")
+ * and ("a", "b\nc") would share a signature.
+ * The first 128 bits of the MAC are stored as the record's UUID, with the
+ * version set to 8 ("custom") so it still prints as a normal UUID. Anyone
+ * holding the key can recompute it and detect a changed record.
+ *
+ * Mac objects are not thread-safe, so each thread gets its own.
+ */
+public final class HmacESignatureGenerator implements ESignatureGenerator {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public HmacESignatureGenerator(byte[] keyBytes) {
+        if (keyBytes.length == 0) {
+            throw new IllegalArgumentException("HMAC key must not be empty");
+        }
+        this.key = new SecretKeySpec(keyBytes.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac(); // Fail now rather than on the first signature if HMAC is unavailable
+    }
+
+    /**
+     * Uses the key from -Dattendance.hmacKey or ATTENDANCE_HMAC_KEY.
+     * Without one, a random key is made, and signatures only verify until the program exits.
+     */
+    public static HmacESignatureGenerator fromConfiguredKey() {
+        String configured = System.getProperty("attendance.hmacKey", System.getenv("ATTENDANCE_HMAC_KEY"));
+        if (configured != null && !configured.isEmpty()) {
+            return new HmacESignatureGenerator(configured.getBytes(StandardCharsets.UTF_8));
+        }
+        System.err.println("No attendance.hmacKey set; using a temporary key (signatures won't verify after restart)");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return new HmacESignatureGenerator(random);
+    }
+
+    @Override
+    public UUID next(String name, String courseYear, long timeInMillis) {
+        Mac mac = macs.get();
+        updateText(mac, name);
+        updateText(mac, courseYear);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            mac.update((byte) (timeInMillis >>> shift));
+        }
+        ByteBuffer digest = ByteBuffer.wrap(mac.doFinal());
+        long msb = (digest.getLong() & ~0xF000L) | 0x8000L;                           // version 8
+        long lsb = (digest.getLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;     // variant
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public boolean isContentBound() {
+        return true;
+    }
+
+    @Override
+    public boolean verify(AttendanceRecord record) {
+        UUID expected = next(record.getName(), record.getCourseYear(), record.getTimeInMillis());
+        // Constant-time comparison, so timing doesn't reveal how much matched
+        byte[] a = ByteBuffer.allocate(16)
+            .putLong(expected.getMostSignificantBits()).putLong(expected.getLeastSignificantBits()).array();
+        byte[] b = ByteBuffer.allocate(16)
+            .putLong(record.getSignatureMsb()).putLong(record.getSignatureLsb()).array();
+        return MessageDigest.isEqual(a, b);
+    }
+
+    // Length (big-endian int) then the UTF-8 bytes
+    private static void updateText(Mac mac, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            mac.update((byte) (bytes.length >>> shift));
+        }
+        mac.update(bytes);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
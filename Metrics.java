@@ -0,0 +1,325 @@
+// Import for EDT hand-off
+import javax.swing.SwingUtilities;
+// Import for JMX export
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+// Import for the periodic dump
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operational metrics for both apps: how many check-ins were accepted or
+ * rejected, how long validation, journal commits, grading and EDT hand-offs
+ * take.
+ *
+ * Off by default. -Dmetrics=true turns it on:
+ * - every metric is registered as an MXBean under "metrics:type=...,name=..."
+ *   (jconsole / VisualVM can watch it live)
+ * - -Dmetrics.dump=SECONDS prints report() to stderr that often, and the
+ *   final numbers are printed when the JVM exits
+ *
+ * ENABLED is read once into a static final, so when metrics are off the JIT
+ * removes the checks and the instrumented code runs as if they weren't
+ * there (no System.nanoTime() calls, no counters touched).
+ *
+ * Each check-in is also a JFR event (AttendanceSubmissionEvent), recorded
+ * whenever a flight recording is running, with or without -Dmetrics.
+ */
+public final class Metrics {
+
+    /** True with -Dmetrics=true. */
+    public static final boolean ENABLED = Boolean.getBoolean("metrics");
+
+    /** JMX view of a Counter. */
+    public interface CounterMXBean {
+        long getCount();
+        String getDescription();
+    }
+
+    /** JMX view of a Histogram (times in milliseconds). */
+    public interface HistogramMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP90Millis();
+        double getP99Millis();
+        double getP999Millis();
+        double getMaxMillis();
+        String getDescription();
+        void reset();
+    }
+
+    /** A count that only ever goes up. Lock-free (LongAdder); does nothing when metrics are off. */
+    public static final class Counter implements CounterMXBean {
+        private final String name;
+        private final String description;
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public void increment() {
+            if (ENABLED) {
+                count.increment();
+            }
+        }
+
+        public void add(long amount) {
+            if (ENABLED) {
+                count.add(amount);
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /** Latency distribution (see LatencyHistogram); does nothing when metrics are off. */
+    public static final class Histogram implements HistogramMXBean {
+        private final String name;
+        private final String description;
+        private final LatencyHistogram values = new LatencyHistogram();
+
+        private Histogram(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        /** Records the time since start, a value from Metrics.start(). */
+        public void recordSince(long start) {
+            if (ENABLED) {
+                values.record(System.nanoTime() - start);
+            }
+        }
+
+        public void record(long nanos) {
+            if (ENABLED) {
+                values.record(nanos);
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return values.getCount();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return values.getMeanNanos() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return values.getPercentileNanos(50) / 1e6;
+        }
+
+        @Override
+        public double getP90Millis() {
+            return values.getPercentileNanos(90) / 1e6;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return values.getPercentileNanos(99) / 1e6;
+        }
+
+        @Override
+        public double getP999Millis() {
+            return values.getPercentileNanos(99.9) / 1e6;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return values.getMaxNanos() / 1e6;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public void reset() {
+            values.reset();
+        }
+    }
+
+    // Every metric, in report order
+    private static final List<Object> ALL = new ArrayList<>();
+
+    // ===== Check-in validation (Submit button and POST /api/attendance) =====
+    public static final Counter SUBMIT_ACCEPTED = counter("submit.accepted",
+        "Check-ins that passed validation");
+    public static final Counter SUBMIT_REJECTED = counter("submit.rejected",
+        "Check-ins refused for missing fields or a wrong login");
+    public static final Histogram SUBMIT_VALIDATION = histogram("submit.validation",
+        "Required-field and login checks of one check-in");
+
+    // ===== Record persistence (AttendancePipeline) =====
+    public static final Counter PIPELINE_BUSY = counter("pipeline.busy",
+        "Submissions turned away because the queue was full");
+    public static final Counter SUBMIT_DUPLICATES = counter("submit.duplicates",
+        "Check-ins turned away as repeats in the same window");
+    public static final Counter DEDUP_EXACT_CHECKS = counter("dedup.exact",
+        "Duplicate filter 'maybe' answers confirmed against the index");
+    public static final Histogram JOURNAL_COMMIT = histogram("journal.commit",
+        "Appending one batch to the journal plus its group commit");
+    public static final Counter JOURNAL_RECORDS = counter("journal.records",
+        "Records written to the journal");
+    public static final Counter JOURNAL_FAILURES = counter("journal.failures",
+        "Batches that could not be saved");
+    public static final Histogram PIPELINE_LATENCY = histogram("pipeline.latency",
+        "From submit() to the completion running (record durable)");
+
+    // ===== Grade computation (Calculator and batch mode) =====
+    public static final Histogram GRADE_COMPUTE = histogram("grade.compute",
+        "One grading call: Calculate button, live update or batch chunk");
+    public static final Counter GRADE_ROWS = counter("grade.rows",
+        "Students graded");
+
+    // ===== Swing =====
+    public static final Histogram EDT_DISPATCH = histogram("edt.dispatch",
+        "From invokeLater() to the task starting on the EDT");
+
+    // How often watchEdt() checks the EDT
+    private static final long EDT_PROBE_MILLIS = 100;
+
+    private static final ScheduledExecutorService SCHEDULER = ENABLED ? startScheduler() : null;
+    private static boolean watchingEdt;
+
+    private Metrics() {
+        // Only static methods
+    }
+
+    /** System.nanoTime() when metrics are on, otherwise 0 (without calling it). */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a finished check-in validation (started at startNanos, a
+     * System.nanoTime() value) in the metrics and on its JFR event.
+     */
+    public static void validated(AttendanceSubmissionEvent event, long startNanos, boolean accepted) {
+        long nanos = System.nanoTime() - startNanos;
+        event.validated(nanos);
+        SUBMIT_VALIDATION.record(nanos);
+        if (accepted) {
+            SUBMIT_ACCEPTED.increment();
+        } else {
+            SUBMIT_REJECTED.increment();
+        }
+    }
+
+    /**
+     * SwingUtilities.invokeLater, timing how long the task waits for the EDT
+     * when metrics are on.
+     */
+    public static void invokeLater(Runnable task) {
+        if (!ENABLED) {
+            SwingUtilities.invokeLater(task);
+            return;
+        }
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            EDT_DISPATCH.recordSince(posted);
+            task.run();
+        });
+    }
+
+    /**
+     * For GUI apps: posts an empty task to the EDT every 100 ms, so
+     * edt.dispatch also shows how responsive the EDT is between hand-offs.
+     */
+    public static synchronized void watchEdt() {
+        if (!ENABLED || watchingEdt) {
+            return;
+        }
+        watchingEdt = true;
+        SCHEDULER.scheduleAtFixedRate(() -> invokeLater(() -> { }),
+            EDT_PROBE_MILLIS, EDT_PROBE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Every metric as text, one per line. */
+    public static String report() {
+        StringBuilder text = new StringBuilder(1024);
+        text.append("metrics at ")
+            .append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+            .append(ENABLED ? "" : " (disabled, start with -Dmetrics=true)")
+            .append('\n');
+        for (Object metric : ALL) {
+            if (metric instanceof Counter) {
+                Counter counter = (Counter) metric;
+                text.append(String.format(Locale.ROOT, "  %-20s %d%n", counter.name, counter.getCount()));
+            } else {
+                Histogram histogram = (Histogram) metric;
+                text.append(String.format(Locale.ROOT,
+                    "  %-20s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms%n",
+                    histogram.name, histogram.getCount(), histogram.getMeanMillis(), histogram.getP50Millis(),
+                    histogram.getP90Millis(), histogram.getP99Millis(), histogram.getP999Millis(),
+                    histogram.getMaxMillis()));
+            }
+        }
+        return text.toString();
+    }
+
+    // ===== Setup =====
+
+    private static Counter counter(String name, String description) {
+        Counter counter = new Counter(name, description);
+        register(counter, "Counter", name);
+        return counter;
+    }
+
+    private static Histogram histogram(String name, String description) {
+        Histogram histogram = new Histogram(name, description);
+        register(histogram, "Histogram", name);
+        return histogram;
+    }
+
+    private static void register(Object metric, String type, String name) {
+        ALL.add(metric);
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(metric, new ObjectName("metrics:type=" + type + ",name=" + name));
+        } catch (JMException e) {
+            System.err.println("Could not register metric " + name + " with JMX: " + e.getMessage());
+        }
+    }
+
+    // One daemon thread for the EDT probe and the periodic dump
+    private static ScheduledExecutorService startScheduler() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long dumpSeconds = Long.getLong("metrics.dump", 0);
+        if (dumpSeconds > 0) {
+            scheduler.scheduleAtFixedRate(() -> System.err.print(report()),
+                dumpSeconds, dumpSeconds, TimeUnit.SECONDS);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(report()), "metrics-report"));
+        return scheduler;
+    }
+}
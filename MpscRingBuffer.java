@@ -0,0 +1,86 @@
+// Import for lock-free slot and index updates
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * Producers claim a slot by advancing the tail with a CAS and then publish
+ * the element into it; the consumer reads published slots in order.
+ * offer() never blocks: it returns false when the buffer is full.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Next slot a producer will claim
+    private volatile long head;                       // Next slot the consumer will read
+
+    /**
+     * Creates a buffer holding at least the given number of elements
+     * (rounded up to a power of two).
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element. Safe to call from any thread.
+     * Returns false (without waiting) when the buffer is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        // Publish; the consumer waits for a non-null slot before reading past it
+        slots.lazySet((int) claimed & mask, element);
+        return true;
+    }
+
+    /**
+     * Removes up to maxElements published elements, in order, passing each to the consumer.
+     * Only the single consumer thread may call this. Returns the number drained.
+     */
+    public int drain(Consumer<? super E> consumer, int maxElements) {
+        long current = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) current & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break; // Empty, or the producer of this slot has not published yet
+            }
+            slots.lazySet(index, null);
+            current++;
+            head = current;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /** Returns the number of claimed slots not yet drained (approximate under contention). */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, slots.length()));
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -7,11 +7,13 @@ import javax.swing.JFrame;      // JFrame = The main window (the box you see)
 import javax.swing.JTextField;  // JTextField = A box where user can TYPE text
 import javax.swing.JLabel;      // JLabel = Just displays text (user can't edit it)
 import javax.swing.JButton;     // JButton = A clickable button
+import javax.swing.JCheckBox;   // JCheckBox = A box the user can tick on/off
 import javax.swing.JPanel;      // JPanel = An invisible container to group things together
+import javax.swing.JOptionPane; // JOptionPane = Small pop-up boxes (messages, questions)
+import javax.swing.SwingWorker; // SwingWorker = Runs slow work in the background, then updates the window
 import java.awt.GridLayout;     // GridLayout = Arranges things in rows & columns (like a table)
 import java.awt.FlowLayout;     // FlowLayout = Arranges things in a row, natural size
 import java.awt.BorderLayout;   // BorderLayout = Arranges things by position (top, bottom, left, right, center)
-import java.awt.Font;           // Font = Controls text style and size
 import java.awt.Color;          // Color = Controls colors
 import java.awt.event.ActionEvent;      // ActionEvent = Event when button is clicked
 import java.awt.event.ActionListener;   // ActionListener = Listens for button clicks
@@ -19,7 +21,21 @@ import java.awt.event.ActionListener;   // ActionListener = Listens for button c
 
 public class Calculator {
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
+        
+        // ============================================
+        // STEP 0: Batch mode (no window)
+        // ============================================
+        // "java Calculator --batch in.csv out.csv" grades a whole CSV roster
+        // with GradeEngine instead of opening the GUI
+        
+        if (args.length > 0 && args[0].equals("--batch")) {
+            GradeBatch.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
+        // The GUI grades one student at a time with a 1-row roster
+        GradeRoster single = new GradeRoster(1);
         
         // ============================================
         // STEP 1: Create the window (JFrame)
@@ -33,6 +49,7 @@ public class Calculator {
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);  // Close program when X is clicked
         window.setLocationRelativeTo(null);    // null = center of screen
         window.setResizable(false);            // Prevent user from resizing (so layout doesn't break)
+        Metrics.watchEdt();                    // Only does something with -Dmetrics=true (see Metrics)
         
         
         // ============================================
@@ -116,6 +133,10 @@ public class Calculator {
         bottomPanel.add(label4);   // "No. of Absents" label
         bottomPanel.add(input4);   // Absents input box
         
+        // Button that fills in the absents from the Attendance Tracker's records (STEP 11)
+        JButton absentsButton = new JButton("From Attendance");
+        bottomPanel.add(absentsButton);
+        
         
         // ============================================
         // STEP 6: Create the Calculate button and Result label
@@ -124,21 +145,17 @@ public class Calculator {
         // When clicked, it will calculate the grade (we'll add this later)
         
         JButton calcButton = new JButton("Calculate Grade");   // Button with text
-        calcButton.setFont(new Font("Arial", Font.BOLD, 16));  // Make text bigger & bold
-        // Font("Arial", Font.BOLD, 16) means:
-        //   - Font name: Arial
-        //   - Style: BOLD (could also be PLAIN or ITALIC)
-        //   - Size: 16 points
+        calcButton.setFont(UiStyle.BIG_BUTTON);                // Make text bigger & bold
+        // UiStyle.BIG_BUTTON is Arial, BOLD, 16 points. It is made ONCE and
+        // shared by every big button (in this app and the Attendance Tracker),
+        // instead of a "new Font(...)" for each one - less work at startup.
         
-        // This label will show the calculated result
-        JLabel resultLabel = new JLabel("<html><center>Your grade will show here</center></html>");
-        resultLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-        resultLabel.setHorizontalAlignment(JLabel.CENTER);  // Center the text horizontally
-        
-        // Label to show required prelim exam score
-        JLabel requiredLabel = new JLabel("<html><center>Required prelim exam scores will show here</center></html>");
-        requiredLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-        requiredLabel.setHorizontalAlignment(JLabel.CENTER);
+        // ResultView holds the two areas that show the results:
+        //   resultPanel()   = attendance, lab average, class standing
+        //   requiredPanel() = prelim exam needed to pass / for 100
+        // Its labels are made once here; each click only changes their text
+        // (see ResultView for why that is much faster than HTML labels)
+        ResultView resultView = new ResultView();
         
         
         // ============================================
@@ -154,9 +171,11 @@ public class Calculator {
         // +---------------------+
         // |    calcButton       |  <- Row 3 (Calculate button)
         // +---------------------+
-        // |    resultLabel      |  <- Row 4 (Shows the grade)
+        // |    resultPanel      |  <- Row 4 (Shows the grade)
+        // +---------------------+
+        // |   requiredPanel     |  <- Row 5 (Required exam scores)
         // +---------------------+
-        // |     (empty)         |  <- Row 5 (extra space)
+        // |   livePanel         |  <- Row 6 (Live update + What-if table)
         // +---------------------+
         
         JPanel mainPanel = new JPanel();
@@ -165,8 +184,16 @@ public class Calculator {
         mainPanel.add(topPanel);      // Add the lab work inputs panel
         mainPanel.add(bottomPanel);   // Add the absents input panel
         mainPanel.add(calcButton);    // Add the calculate button
-        mainPanel.add(resultLabel);   // Add the result display
-        mainPanel.add(requiredLabel); // Add the required score display
+        mainPanel.add(resultView.resultPanel());     // Add the result display
+        mainPanel.add(resultView.requiredPanel());   // Add the required score display
+        
+        // Row 6: live mode switch and the what-if table button
+        JCheckBox liveBox = new JCheckBox("Live update while typing");
+        JButton whatIfButton = new JButton("What-if Table");
+        JPanel livePanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        livePanel.add(liveBox);
+        livePanel.add(whatIfButton);
+        mainPanel.add(livePanel);
         
         
         // ============================================
@@ -175,7 +202,11 @@ public class Calculator {
         // window.add() puts the mainPanel inside the window
         // window.setVisible(true) actually displays the window on screen
         
+        // StartupProbe.watch() only does something with -Dstartup.probe: it prints
+        // how long it took from launching the program to this first frame
+        
         window.add(mainPanel);        // Put mainPanel inside the window
+        StartupProbe.watch("Calculator", window);
         window.setVisible(true);      // Show the window! (IMPORTANT - without this, nothing appears!)
         
         // ============================================
@@ -193,73 +224,150 @@ public class Calculator {
                     double lab3 = Double.parseDouble(input3.getText());
                     int absents = Integer.parseInt(input4.getText());
                     
-                    // Calculate Attendance (100 base score, -10 per absent)
-                    double attendance = 100 - (absents * 10);
-                    if (attendance < 0) attendance = 0;  // Can't go below 0
-                    
-                    // Calculate Lab Work Average
-                    double labWorkAverage = (lab1 + lab2 + lab3) / 3.0;
+                    // Let GradeEngine do the math (same formulas as batch mode)
+                    single.clear();
+                    single.add(lab1, lab2, lab3, absents);
+                    single.grade();
                     
-                    // Calculate Class Standing
-                    // Class Standing = (Attendance x 0.40) + (Lab Work Average x 0.60)
-                    double classStanding = (attendance * 0.40) + (labWorkAverage * 0.60);
-                    
-                    // Calculate required Prelim Exam score to pass (75) and get 100
-                    // Prelim Grade = (Prelim Exam x 0.30) + (Class Standing x 0.70)
-                    // To find Prelim Exam: Prelim Exam = (Target Grade - Class Standing x 0.70) / 0.30
-                    
-                    double requiredToPass = (75 - (classStanding * 0.70)) / 0.30;
-                    double requiredFor100 = (100 - (classStanding * 0.70)) / 0.30;
+                    double attendance = GradeEngine.attendance(absents);
+                    double labWorkAverage = GradeEngine.labWorkAverage(lab1, lab2, lab3);
+                    double classStanding = single.classStanding[0];
+                    double requiredToPass = single.requiredToPass[0];
+                    double requiredFor100 = single.requiredFor100[0];
+                    double maxPossibleGrade = single.maxPossibleGrade[0];
                     
                     // Display results
-                    String resultText = String.format(
-                        "<html><center>" +
-                        "Attendance Score: %.2f<br>" +
-                        "Lab Work Average: %.2f<br>" +
-                        "Class Standing: %.2f" +
-                        "</center></html>",
-                        attendance, labWorkAverage, classStanding
-                    );
-                    resultLabel.setText(resultText);
-                    
-                    // Calculate max possible grade if they get 100 on prelim exam
-                    double maxPossibleGrade = (100 * 0.30) + (classStanding * 0.70);
-                    
-                    // Determine required score to pass (75)
-                    String passStatus;
-                    if (requiredToPass > 100) {
-                        passStatus = String.format("<font color='red'>Cannot pass (need %.2f)</font>", requiredToPass);
-                    } else if (requiredToPass <= 0) {
-                        passStatus = "<font color='green'>ALREADY PASSING! (need 0 or less)</font>";
-                    } else {
-                        passStatus = String.format("<font color='blue'>%.2f</font>", requiredToPass);
-                    }
+                    resultView.showResult(attendance, labWorkAverage, classStanding,
+                        requiredToPass, requiredFor100, maxPossibleGrade);
                     
-                    // For 100: show required exam score AND the max possible grade
-                    String perfectStatus;
-                    if (requiredFor100 > 100) {
-                        perfectStatus = String.format("<font color='orange'>Need %.2f (Max grade: %.2f)</font>", requiredFor100, maxPossibleGrade);
-                    } else if (requiredFor100 <= 0) {
-                        perfectStatus = String.format("<font color='green'>GUARANTEED! (Max grade: %.2f)</font>", maxPossibleGrade);
+                } catch (NumberFormatException ex) {
+                    resultView.showInvalidInput();
+                }
+            }
+        });
+        
+        // ============================================
+        // STEP 10: Live mode and the what-if table
+        // ============================================
+        // With "Live update" ticked, the results change while you type -
+        // no button needed. LiveGradeUpdater does the math on a background
+        // thread and only redoes what the edited box affects; we just show
+        // the newest numbers it sends back (always on the EDT).
+        
+        // The what-if table is its own window with a big JTable inside. Most
+        // students never open it, so it is only made on the FIRST click of
+        // "What-if Table" - not while the program is starting up.
+        // (It lives in a 1-element array so the code in the { } below can set it.)
+        
+        WhatIfTable[] whatIfTable = { null };
+        LiveGradeUpdater liveUpdater = new LiveGradeUpdater(
+            new JTextField[] { input1, input2, input3, input4 },
+            update -> {
+                if (liveBox.isSelected()) {
+                    if (update.result != null) {
+                        GradeWhatIf.Result r = update.result;
+                        resultView.showResult(r.attendance, r.labWorkAverage, r.classStanding,
+                            r.requiredToPass, r.requiredFor100, r.maxPossibleGrade);
+                    } else if (update.invalidInput) {
+                        resultView.showInvalidInput();
                     } else {
-                        perfectStatus = String.format("<font color='blue'>%.2f (Max grade: %.2f)</font>", requiredFor100, maxPossibleGrade);
+                        resultView.showPlaceholder();   // Some box is still empty
                     }
-                    
-                    String requiredText = String.format(
-                        "<html><center>" +
-                        "<b>Required Prelim Exam Score:</b><br>" +
-                        "To Pass (75): %s<br>" +
-                        "For Perfect (100): %s" +
-                        "</center></html>",
-                        passStatus, perfectStatus
-                    );
-                    requiredLabel.setText(requiredText);
-                    
-                } catch (NumberFormatException ex) {
-                    resultLabel.setText("<html><center><font color='red'>Please enter valid numbers!</font></center></html>");
-                    requiredLabel.setText("");
                 }
+                if (whatIfTable[0] != null && whatIfTable[0].isVisible()) {
+                    whatIfTable[0].show(update.sweep);
+                }
+            });
+        
+        liveBox.addActionListener(e -> liveUpdater.setLive(liveBox.isSelected()));
+        
+        whatIfButton.addActionListener(e -> {
+            if (whatIfTable[0] == null) {
+                whatIfTable[0] = new WhatIfTable(window);   // First click: make it now
+                whatIfTable[0].addWindowListener(new java.awt.event.WindowAdapter() {
+                    @Override
+                    public void windowClosing(java.awt.event.WindowEvent e) {
+                        liveUpdater.setSweepWanted(false);   // Stop computing cells nobody sees
+                    }
+                });
             }
+            whatIfTable[0].setVisible(true);
+            liveUpdater.setSweepWanted(true);
         });
+        
+        // ============================================
+        // STEP 11: Absents from the Attendance Tracker
+        // ============================================
+        // Instead of counting absents by hand, ask for the student's name and
+        // course/year and look them up in the attendance app's journal folder
+        // (-Dattendance.journal.dir, default "attendance-journal").
+        //
+        // AttendanceRollups keeps running totals there, so the first lookup reads
+        // a small summary file (plus any check-ins newer than it), never every
+        // record. The totals are kept, so later lookups only read the check-ins
+        // saved since the one before.
+        // It still touches the disk, so it runs in a SwingWorker: doInBackground()
+        // runs on a background thread, done() runs back on the EDT.
+        
+        java.nio.file.Path journalDir = java.nio.file.Paths.get(
+            System.getProperty("attendance.journal.dir", "attendance-journal"));
+        AttendanceRollups[] attendance = { null };   // Opened on the first lookup
+        JTextField studentName = new JTextField(15);
+        JTextField studentCourse = new JTextField(15);
+        absentsButton.addActionListener(e -> {
+            JPanel askPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+            askPanel.add(new JLabel("Name:"));
+            askPanel.add(studentName);
+            askPanel.add(new JLabel("Course/Year:"));
+            askPanel.add(studentCourse);
+            int answer = JOptionPane.showConfirmDialog(window, askPanel,
+                "Absents from Attendance", JOptionPane.OK_CANCEL_OPTION);
+            if (answer != JOptionPane.OK_OPTION) {
+                return;   // Cancelled
+            }
+            String name = studentName.getText().trim();
+            String course = studentCourse.getText().trim();
+            if (name.isEmpty() || course.isEmpty()) {
+                JOptionPane.showMessageDialog(window, "Please enter both the Name and the Course/Year.");
+                return;
+            }
+            
+            absentsButton.setEnabled(false);   // No double clicks while it loads
+            new SwingWorker<int[], Void>() {
+                @Override
+                protected int[] doInBackground() throws Exception {
+                    // Only one lookup runs at a time (the button is off), so this is safe
+                    AttendanceRollups rollups = attendance[0];
+                    if (rollups == null
+                            || AttendanceJournal.replay(journalDir, rollups.getRecordCount(), rollups::add) < 0) {
+                        // First lookup, or the journal was replaced by a shorter one: start over
+                        rollups = AttendanceRollups.open(journalDir);
+                        attendance[0] = rollups;
+                    }
+                    return new int[] { rollups.absents(course, name), rollups.daysMet(course) };
+                }
+                
+                @Override
+                protected void done() {
+                    absentsButton.setEnabled(true);
+                    try {
+                        int[] found = get();   // { absents, days the course met }
+                        if (found[0] == AttendanceRollups.NOT_FOUND) {
+                            JOptionPane.showMessageDialog(window,
+                                "No check-ins by " + name + " in " + course + " (the course met on "
+                                    + found[1] + " days).\nCheck the spelling, or type the absents yourself.");
+                        } else {
+                            input4.setText(String.valueOf(found[0]));   // Live mode updates by itself
+                        }
+                    } catch (Exception ex) {
+                        JOptionPane.showMessageDialog(window, "Could not read the attendance records: "
+                            + (ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage()));
+                    }
+                }
+            }.execute();
+        });
+        
+        // Every button works from here on (only prints something with -Dstartup.probe)
+        StartupProbe.ready("Calculator");
     }
 }
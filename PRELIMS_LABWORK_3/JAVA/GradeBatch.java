@@ -0,0 +1,199 @@
+// =====================================================================
+// GradeBatch - grade a whole CSV roster from the command line
+// =====================================================================
+// Usage:
+//   java Calculator --batch students.csv results.csv [--attendance <journal dir>]
+//
+// Input columns (a header line is allowed and skipped):
+//   name,course,lab1,lab2,lab3,absents
+//
+// With --attendance, an EMPTY absents cell is filled in from the attendance
+// app's records: AttendanceRollups already knows how many days each course
+// met and how many of them each student was present, so nobody has to
+// count absents by hand. A number in the cell still wins (e.g. for an
+// excused absence). Only those rows need the name and course as Strings.
+//
+// Output columns:
+//   name,course,classStanding,requiredToPass,requiredFor100,maxPossibleGrade
+//
+// The file is streamed in chunks of CHUNK_ROWS students: read a chunk into
+// a reused GradeRoster, grade it on all cores (ParallelGradeEngine), write
+// it out, repeat. Memory use stays the same whether the file has a hundred
+// or a million rows.
+//
+// Reading and writing go through CsvChunkReader / CsvChunkWriter: the lab
+// scores and absents are parsed straight from the file's bytes, and the
+// name and course bytes are copied to the output unchanged, so no String
+// is made for any student.
+//
+// Build: CsvChunkReader, CsvChunkWriter, Fixed2 and AttendanceRollups live
+// in the repository root, so this directory is compiled together with it
+// (see "Building and running the Java apps" in the README), never alone.
+// =====================================================================
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public final class GradeBatch {
+
+    public static final int CHUNK_ROWS = 65536;
+
+    public static final String OUTPUT_HEADER =
+        "name,course,classStanding,requiredToPass,requiredFor100,maxPossibleGrade";
+
+    // Column positions in the input file
+    private static final int NAME = 0;
+    private static final int COURSE = 1;
+    private static final int LAB1 = 2;
+    private static final int LAB2 = 3;
+    private static final int LAB3 = 4;
+    private static final int ABSENTS = 5;
+
+    private GradeBatch() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && !(args.length == 4 && args[2].equals("--attendance"))) {
+            System.err.println("Usage: java Calculator --batch <input.csv> <output.csv> [--attendance <journal dir>]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        AttendanceRollups attendance = args.length == 4 ? AttendanceRollups.open(Paths.get(args[3])) : null;
+        long rows = run(Paths.get(args[0]), Paths.get(args[1]), attendance);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Graded %d students in %.2f s (%.0f students/s)%n", rows, seconds, rows / seconds);
+    }
+
+    /**
+     * Grades every student in the input file and writes the results.
+     * Returns the number of students graded.
+     */
+    public static long run(Path input, Path output) throws IOException {
+        return run(input, output, null);
+    }
+
+    /**
+     * Same as run(input, output), but empty absents cells are taken from the
+     * attendance roll-ups (when not null).
+     */
+    public static long run(Path input, Path output, AttendanceRollups attendance) throws IOException {
+        GradeRoster roster = new GradeRoster(CHUNK_ROWS);
+        PassThrough text = new PassThrough(CHUNK_ROWS);
+        long total = 0;
+
+        try (CsvChunkReader reader = new CsvChunkReader(input);
+             CsvChunkWriter writer = new CsvChunkWriter(output)) {
+            for (String column : OUTPUT_HEADER.split(",")) {
+                writer.text(column);
+            }
+            writer.endRow();
+
+            while (reader.next()) {
+                if (reader.rowNumber() == 1 && reader.fieldEqualsIgnoreCase(NAME, "name")) {
+                    continue; // Header
+                }
+                if (reader.fieldCount() != 6) {
+                    throw new IOException("Line " + reader.rowNumber() + ": expected 6 columns");
+                }
+                try {
+                    roster.add(
+                        reader.parseDouble(LAB1),
+                        reader.parseDouble(LAB2),
+                        reader.parseDouble(LAB3),
+                        attendance != null && reader.isEmpty(ABSENTS)
+                            ? absentsFromAttendance(reader, attendance)
+                            : reader.parseInt(ABSENTS));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage());
+                }
+                text.add(reader);
+                if (roster.isFull()) {
+                    total += flush(roster, text, writer);
+                }
+            }
+            total += flush(roster, text, writer);
+        }
+        return total;
+    }
+
+    // Absents of this row's student, counted from their check-ins
+    private static int absentsFromAttendance(CsvChunkReader reader, AttendanceRollups attendance) throws IOException {
+        String name = reader.string(NAME).trim();
+        String course = reader.string(COURSE).trim();
+        int absents = attendance.absents(course, name);
+        if (absents == AttendanceRollups.NOT_FOUND) {
+            throw new IOException("Line " + reader.rowNumber() + ": no check-ins by " + name + " in " + course
+                + "; fill in the absents column");
+        }
+        return absents;
+    }
+
+    // Grade the rows collected so far, write them, and empty the roster
+    private static int flush(GradeRoster roster, PassThrough text, CsvChunkWriter writer) throws IOException {
+        int size = roster.size();
+        ParallelGradeEngine.grade(roster, 0, size);
+        for (int i = 0; i < size; i++) {
+            text.write(i, writer);
+            writer.fixed2(roster.classStanding[i])
+                .fixed2(roster.requiredToPass[i])
+                .fixed2(roster.requiredFor100[i])
+                .fixed2(roster.maxPossibleGrade[i])
+                .endRow();
+        }
+        roster.clear();
+        text.clear();
+        return size;
+    }
+
+    // =====================================================================
+    // PassThrough - the name and course bytes of one chunk, kept as bytes
+    // =====================================================================
+    // All text goes into one growing byte array; for each row we remember
+    // where its name and course start, how long they are and if they were
+    // quoted in the input (so they are written back the same way).
+
+    private static final class PassThrough {
+        private byte[] arena = new byte[1 << 20];
+        private int used;
+        private final int[] start;      // [row * 2] = name, [row * 2 + 1] = course
+        private final int[] length;
+        private final boolean[] quoted;
+        private int rows;
+
+        PassThrough(int capacity) {
+            start = new int[capacity * 2];
+            length = new int[capacity * 2];
+            quoted = new boolean[capacity * 2];
+        }
+
+        void add(CsvChunkReader reader) {
+            int slot = rows++ * 2;
+            copy(reader, NAME, slot);
+            copy(reader, COURSE, slot + 1);
+        }
+
+        private void copy(CsvChunkReader reader, int field, int slot) {
+            int size = reader.fieldLength(field);
+            if (used + size > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, used + size));
+            }
+            start[slot] = used;
+            length[slot] = reader.copyBytes(field, arena, used);
+            quoted[slot] = reader.isQuoted(field);
+            used += size;
+        }
+
+        void write(int row, CsvChunkWriter writer) throws IOException {
+            int slot = row * 2;
+            writer.rawField(arena, start[slot], length[slot], quoted[slot]);
+            writer.rawField(arena, start[slot + 1], length[slot + 1], quoted[slot + 1]);
+        }
+
+        void clear() {
+            rows = 0;
+            used = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+// =====================================================================
+// GradeEngine - all the prelim grade math, without any GUI
+// =====================================================================
+// The formulas are the same ones the Calculate button always used:
+//
+//   Attendance      = 100 - (absents x 10), never below 0
+//   Lab Average     = (lab1 + lab2 + lab3) / 3
+//   Class Standing  = (Attendance x 0.40) + (Lab Average x 0.60)
+//   Prelim Grade    = (Prelim Exam x 0.30) + (Class Standing x 0.70)
+//
+// so the prelim exam needed for a target grade is
+//   (Target - Class Standing x 0.70) / 0.30
+//
+// Instead of one student at a time, the engine works on whole rosters
+// stored as parallel arrays (one array per column, see GradeRoster).
+// The loop only reads and writes those arrays, so grading creates no
+// objects at all, no matter how many students there are.
+// =====================================================================
+
+public final class GradeEngine {
+
+    public static final double ATTENDANCE_WEIGHT = 0.40;
+    public static final double LAB_WORK_WEIGHT = 0.60;
+    public static final double CLASS_STANDING_WEIGHT = 0.70;
+    public static final double EXAM_WEIGHT = 0.30;
+
+    public static final double PASSING_GRADE = 75;
+    public static final double PERFECT_GRADE = 100;
+
+    private GradeEngine() {
+        // Only static methods
+    }
+
+    // Attendance score: 100 base, minus 10 per absent, can't go below 0
+    public static double attendance(int absents) {
+        double attendance = 100 - (absents * 10);
+        if (attendance < 0) attendance = 0;
+        return attendance;
+    }
+
+    public static double labWorkAverage(double lab1, double lab2, double lab3) {
+        return (lab1 + lab2 + lab3) / 3.0;
+    }
+
+    public static double classStanding(double attendance, double labWorkAverage) {
+        return (attendance * ATTENDANCE_WEIGHT) + (labWorkAverage * LAB_WORK_WEIGHT);
+    }
+
+    // Prelim exam score needed to reach the target grade
+    public static double requiredExam(double target, double classStanding) {
+        return (target - (classStanding * CLASS_STANDING_WEIGHT)) / EXAM_WEIGHT;
+    }
+
+    // Grade the student gets with a perfect (100) prelim exam
+    public static double maxPossibleGrade(double classStanding) {
+        return (100 * EXAM_WEIGHT) + (classStanding * CLASS_STANDING_WEIGHT);
+    }
+
+    /**
+     * Grades rows [from, to) of the roster, filling its output columns.
+     */
+    public static void grade(GradeRoster roster, int from, int to) {
+        grade(roster.lab1, roster.lab2, roster.lab3, roster.absents,
+            roster.classStanding, roster.requiredToPass, roster.requiredFor100, roster.maxPossibleGrade,
+            from, to);
+    }
+
+    /**
+     * Grades rows [from, to) of the given column arrays.
+     * Row i of every output array is computed from row i of the input arrays.
+     */
+    public static void grade(double[] lab1, double[] lab2, double[] lab3, int[] absents,
+                             double[] classStanding, double[] requiredToPass,
+                             double[] requiredFor100, double[] maxPossibleGrade,
+                             int from, int to) {
+        for (int i = from; i < to; i++) {
+            double cs = classStanding(attendance(absents[i]), labWorkAverage(lab1[i], lab2[i], lab3[i]));
+            classStanding[i] = cs;
+            requiredToPass[i] = requiredExam(PASSING_GRADE, cs);
+            requiredFor100[i] = requiredExam(PERFECT_GRADE, cs);
+            maxPossibleGrade[i] = maxPossibleGrade(cs);
+        }
+    }
+}
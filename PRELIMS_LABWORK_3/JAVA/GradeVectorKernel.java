@@ -0,0 +1,73 @@
+// =====================================================================
+// GradeVectorKernel - GradeEngine's formulas on SIMD lanes
+// =====================================================================
+// Uses the incubating Vector API, so compile and run with
+//   --add-modules jdk.incubator.vector
+// Nothing else should call this class directly: ParallelGradeEngine
+// checks that the module is present and falls back to GradeEngine if not.
+//
+// Each step is the same IEEE operation, in the same order, as the scalar
+// code in GradeEngine (no fused multiply-add, no reordering), so every
+// lane produces exactly the bits the scalar loop would.
+// =====================================================================
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+final class GradeVectorKernel {
+
+    // As many doubles as the CPU's widest vector holds, and as many ints to match
+    static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    static final VectorSpecies<Integer> INTS =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    private GradeVectorKernel() {
+    }
+
+    static int lanes() {
+        return DOUBLES.length();
+    }
+
+    static void grade(double[] lab1, double[] lab2, double[] lab3, int[] absents,
+                      double[] classStanding, double[] requiredToPass,
+                      double[] requiredFor100, double[] maxPossibleGrade,
+                      int from, int to) {
+        int step = DOUBLES.length();
+        int i = from;
+        for (; i <= to - step; i += step) {
+            // Attendance = 100 - (absents x 10) in int math (like the scalar code), then clamp at 0
+            IntVector abs = IntVector.fromArray(INTS, absents, i);
+            IntVector points = IntVector.broadcast(INTS, 100).sub(abs.mul(10));
+            DoubleVector attendance = ((DoubleVector) points.convertShape(VectorOperators.I2D, DOUBLES, 0))
+                .max(0.0);
+
+            // Lab Average = (lab1 + lab2 + lab3) / 3
+            DoubleVector labAverage = DoubleVector.fromArray(DOUBLES, lab1, i)
+                .add(DoubleVector.fromArray(DOUBLES, lab2, i))
+                .add(DoubleVector.fromArray(DOUBLES, lab3, i))
+                .div(3.0);
+
+            // Class Standing = Attendance x 0.40 + Lab Average x 0.60
+            DoubleVector cs = attendance.mul(GradeEngine.ATTENDANCE_WEIGHT)
+                .add(labAverage.mul(GradeEngine.LAB_WORK_WEIGHT));
+            cs.intoArray(classStanding, i);
+
+            // Required exam = (Target - Class Standing x 0.70) / 0.30
+            DoubleVector weighted = cs.mul(GradeEngine.CLASS_STANDING_WEIGHT);
+            DoubleVector.broadcast(DOUBLES, GradeEngine.PASSING_GRADE).sub(weighted)
+                .div(GradeEngine.EXAM_WEIGHT).intoArray(requiredToPass, i);
+            DoubleVector.broadcast(DOUBLES, GradeEngine.PERFECT_GRADE).sub(weighted)
+                .div(GradeEngine.EXAM_WEIGHT).intoArray(requiredFor100, i);
+
+            // Max grade = 100 x 0.30 + Class Standing x 0.70
+            DoubleVector.broadcast(DOUBLES, 100 * GradeEngine.EXAM_WEIGHT).add(weighted)
+                .intoArray(maxPossibleGrade, i);
+        }
+        // Leftover rows that don't fill a whole vector
+        GradeEngine.grade(lab1, lab2, lab3, absents,
+            classStanding, requiredToPass, requiredFor100, maxPossibleGrade, i, to);
+    }
+}
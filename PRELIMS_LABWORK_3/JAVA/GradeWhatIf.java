@@ -0,0 +1,209 @@
+// =====================================================================
+// GradeWhatIf - the Calculator's numbers, updated one input at a time
+// =====================================================================
+// The Calculate button re-reads all four boxes and redoes every formula.
+// In live mode only ONE box changes at a time, so this class remembers
+// every in-between value and only redoes the ones that depend on the box
+// that changed:
+//
+//   absents ----> attendance ---\
+//                                +--> class standing --> required scores
+//   lab 1/2/3 --> lab average --/                        and max grade
+//
+// Changing the absents never touches the lab average, and changing a lab
+// score never touches the attendance. Every value is computed with the
+// same GradeEngine helpers as the button and batch mode, so the results
+// are exactly the same numbers.
+//
+// sweep() builds a what-if table: required prelim exam to pass for a range
+// of absents (rows) and lab 3 scores (columns). Attendance is worked out
+// once per row and the lab average once per column; each cell only does
+// the last two steps.
+//
+// Not thread-safe: LiveGradeUpdater uses it from its one worker thread.
+// =====================================================================
+
+public final class GradeWhatIf {
+
+    // What we know about each input box
+    public static final int EMPTY = 0;      // Nothing typed yet
+    public static final int VALID = 1;      // A number we can use
+    public static final int INVALID = 2;    // Something that isn't a number
+
+    // Input numbers (the same order as the Calculator's boxes)
+    public static final int LAB1 = 0;
+    public static final int LAB2 = 1;
+    public static final int LAB3 = 2;
+    public static final int ABSENTS = 3;
+    public static final int INPUTS = 4;
+
+    // ============================================
+    // Result - one finished set of numbers (never changes once made)
+    // ============================================
+    public static final class Result {
+        public final double attendance;
+        public final double labWorkAverage;
+        public final double classStanding;
+        public final double requiredToPass;
+        public final double requiredFor100;
+        public final double maxPossibleGrade;
+
+        Result(double attendance, double labWorkAverage, double classStanding,
+               double requiredToPass, double requiredFor100, double maxPossibleGrade) {
+            this.attendance = attendance;
+            this.labWorkAverage = labWorkAverage;
+            this.classStanding = classStanding;
+            this.requiredToPass = requiredToPass;
+            this.requiredFor100 = requiredFor100;
+            this.maxPossibleGrade = maxPossibleGrade;
+        }
+    }
+
+    // Inputs and their state
+    private final double[] labs = new double[3];
+    private int absents;
+    private final int[] states = new int[INPUTS];
+
+    // Remembered in-between values (only valid when their inputs are)
+    private double attendance;
+    private double labWorkAverage;
+    private Result result;
+
+    // How many times each step actually ran (handy for checking the "only
+    // what changed" promise)
+    private long attendanceUpdates;
+    private long labAverageUpdates;
+
+    /**
+     * Reads the text of one box and updates only what depends on it.
+     * Returns true when the text changed the model.
+     */
+    public boolean set(int input, String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return changeState(input, EMPTY);
+        }
+        try {
+            if (input == ABSENTS) {
+                int value = Integer.parseInt(trimmed);
+                if (states[ABSENTS] == VALID && absents == value) {
+                    return false; // Same number, nothing to redo
+                }
+                absents = value;
+                states[ABSENTS] = VALID;
+                attendance = GradeEngine.attendance(absents);
+                attendanceUpdates++;
+            } else {
+                double value = Double.parseDouble(trimmed);
+                if (states[input] == VALID && Double.compare(labs[input], value) == 0) {
+                    return false;
+                }
+                labs[input] = value;
+                states[input] = VALID;
+                if (labsValid()) {
+                    // (While a lab box is empty there is no average; it is
+                    // worked out as soon as the last lab box gets a number)
+                    labWorkAverage = GradeEngine.labWorkAverage(labs[LAB1], labs[LAB2], labs[LAB3]);
+                    labAverageUpdates++;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return changeState(input, INVALID);
+        }
+        updateResult();
+        return true;
+    }
+
+    private boolean changeState(int input, int state) {
+        if (states[input] == state) {
+            return false;
+        }
+        states[input] = state;
+        result = null;
+        return true;
+    }
+
+    // Last step: class standing and everything after it
+    private void updateResult() {
+        if (!isComplete()) {
+            result = null;
+            return;
+        }
+        double cs = GradeEngine.classStanding(attendance, labWorkAverage);
+        result = new Result(attendance, labWorkAverage, cs,
+            GradeEngine.requiredExam(GradeEngine.PASSING_GRADE, cs),
+            GradeEngine.requiredExam(GradeEngine.PERFECT_GRADE, cs),
+            GradeEngine.maxPossibleGrade(cs));
+    }
+
+    private boolean labsValid() {
+        return states[LAB1] == VALID && states[LAB2] == VALID && states[LAB3] == VALID;
+    }
+
+    /** True when all four boxes hold valid numbers. */
+    public boolean isComplete() {
+        return labsValid() && states[ABSENTS] == VALID;
+    }
+
+    /** True when any box holds something that isn't a number. */
+    public boolean hasInvalidInput() {
+        for (int state : states) {
+            if (state == INVALID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int state(int input) {
+        return states[input];
+    }
+
+    public double lab(int input) {
+        return labs[input];
+    }
+
+    /** The latest numbers, or null while some box is empty or invalid. */
+    public Result result() {
+        return result;
+    }
+
+    public long getAttendanceUpdates() {
+        return attendanceUpdates;
+    }
+
+    public long getLabAverageUpdates() {
+        return labAverageUpdates;
+    }
+
+    // ============================================
+    // What-if table
+    // ============================================
+
+    /**
+     * Required prelim exam to pass (75) for every combination of absents
+     * (rows) and lab 3 score (columns), keeping lab 1 and lab 2 fixed.
+     * cell[r][c] is the same number GradeEngine gives for that student.
+     */
+    public static double[][] sweep(double lab1, double lab2, int[] absents, double[] lab3Scores) {
+        // Parts that depend only on the row...
+        double[] rowAttendance = new double[absents.length];
+        for (int r = 0; r < absents.length; r++) {
+            rowAttendance[r] = GradeEngine.attendance(absents[r]);
+        }
+        // ...and parts that depend only on the column
+        double[] columnLabAverage = new double[lab3Scores.length];
+        for (int c = 0; c < lab3Scores.length; c++) {
+            columnLabAverage[c] = GradeEngine.labWorkAverage(lab1, lab2, lab3Scores[c]);
+        }
+        // Each cell only combines them
+        double[][] cells = new double[absents.length][lab3Scores.length];
+        for (int r = 0; r < absents.length; r++) {
+            for (int c = 0; c < lab3Scores.length; c++) {
+                double cs = GradeEngine.classStanding(rowAttendance[r], columnLabAverage[c]);
+                cells[r][c] = GradeEngine.requiredExam(GradeEngine.PASSING_GRADE, cs);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,183 @@
+// =====================================================================
+// LiveGradeUpdater - recompute the Calculator's results while typing
+// =====================================================================
+// How one keystroke travels:
+//
+//   1. (EDT) The box's DocumentListener saves just THAT box's text and
+//      restarts a short timer. Fast typing keeps restarting it, so a
+//      burst of keystrokes turns into one update.
+//   2. (EDT) The timer fires and hands the work to one background thread.
+//   3. (worker) Only the boxes whose text changed are parsed, and
+//      GradeWhatIf redoes only the values that depend on them. If the
+//      what-if table is open its cells are recomputed too.
+//   4. (worker -> EDT) The finished Update is published. If the EDT hasn't
+//      shown the previous one yet, only the newest is shown - updates are
+//      coalesced, never queued up.
+//
+// The GUI never waits on the math, and the math never touches Swing.
+// =====================================================================
+
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+public final class LiveGradeUpdater {
+
+    // Wait this long after the last keystroke before recomputing
+    public static final int DEBOUNCE_MILLIS = 150;
+
+    // What-if table ranges: 0..10 absents (rows) x lab 3 = 0, 10, ..., 100 (columns)
+    public static final int[] SWEEP_ABSENTS = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+    public static final double[] SWEEP_LAB3 = { 0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100 };
+
+    // ============================================
+    // Update - what the EDT gets to show (never changes once made)
+    // ============================================
+    public static final class Update {
+        public final GradeWhatIf.Result result;     // null while a box is empty or invalid
+        public final boolean invalidInput;          // Some box isn't a number
+        public final double[][] sweep;              // null unless the table is open and labs 1-2 are valid
+
+        Update(GradeWhatIf.Result result, boolean invalidInput, double[][] sweep) {
+            this.result = result;
+            this.invalidInput = invalidInput;
+            this.sweep = sweep;
+        }
+    }
+
+    private final JTextField[] fields;
+    private final Consumer<Update> view;
+
+    // Worker-thread state
+    private final GradeWhatIf model = new GradeWhatIf();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "calculator-live");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Hand-off between the threads
+    private final AtomicReferenceArray<String> changedText;    // Per box: new text, or null
+    private final AtomicReference<Update> latest = new AtomicReference<>();
+    private final AtomicBoolean showScheduled = new AtomicBoolean();
+    private final Timer debounce;
+
+    // Switches (set on the EDT, read by the worker)
+    private volatile boolean live;
+    private volatile boolean sweepWanted;
+
+    /**
+     * fields must be in GradeWhatIf input order (lab 1, lab 2, lab 3, absents).
+     * view is called on the EDT with the newest Update.
+     */
+    public LiveGradeUpdater(JTextField[] fields, Consumer<Update> view) {
+        this.fields = fields.clone();
+        this.view = view;
+        this.changedText = new AtomicReferenceArray<>(fields.length);
+        this.debounce = new Timer(DEBOUNCE_MILLIS, e -> worker.execute(this::recompute));
+        this.debounce.setRepeats(false);
+
+        for (int i = 0; i < fields.length; i++) {
+            int input = i;
+            fields[i].getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    edited(input);
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    edited(input);
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    edited(input);
+                }
+            });
+        }
+    }
+
+    /** Turns live result updates on or off (call on the EDT). */
+    public void setLive(boolean on) {
+        boolean wasActive = isActive();
+        live = on;
+        if (!wasActive && isActive()) {
+            refreshAll();
+        }
+    }
+
+    /** Turns the what-if table's updates on or off (call on the EDT). */
+    public void setSweepWanted(boolean on) {
+        boolean wasActive = isActive();
+        sweepWanted = on;
+        if (on) {
+            refreshAll(); // Table needs a first set of cells right away
+        } else if (wasActive && !isActive()) {
+            debounce.stop();
+        }
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    private boolean isActive() {
+        return live || sweepWanted;
+    }
+
+    // ===== Step 1: a box changed (EDT) =====
+    private void edited(int input) {
+        if (!isActive()) {
+            return;
+        }
+        changedText.set(input, fields[input].getText());
+        debounce.restart();
+    }
+
+    // Queue every box (used when live mode or the table is switched on)
+    private void refreshAll() {
+        for (int i = 0; i < fields.length; i++) {
+            changedText.set(i, fields[i].getText());
+        }
+        worker.execute(this::recompute);
+    }
+
+    // ===== Step 3: recompute on the worker thread =====
+    private void recompute() {
+        long start = Metrics.start();
+        for (int i = 0; i < fields.length; i++) {
+            String text = changedText.getAndSet(i, null);
+            if (text != null) {
+                model.set(i, text);
+            }
+        }
+        double[][] sweep = null;
+        if (sweepWanted
+                && model.state(GradeWhatIf.LAB1) == GradeWhatIf.VALID
+                && model.state(GradeWhatIf.LAB2) == GradeWhatIf.VALID) {
+            sweep = GradeWhatIf.sweep(model.lab(GradeWhatIf.LAB1), model.lab(GradeWhatIf.LAB2),
+                SWEEP_ABSENTS, SWEEP_LAB3);
+        }
+        Metrics.GRADE_COMPUTE.recordSince(start);
+        publish(new Update(model.result(), model.hasInvalidInput(), sweep));
+    }
+
+    // ===== Step 4: hand the newest Update to the EDT =====
+    private void publish(Update update) {
+        latest.set(update);
+        if (showScheduled.compareAndSet(false, true)) {
+            Metrics.invokeLater(() -> {
+                showScheduled.set(false); // Anything published after this schedules a new show
+                view.accept(latest.get());
+            });
+        }
+    }
+}
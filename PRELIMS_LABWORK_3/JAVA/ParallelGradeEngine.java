@@ -0,0 +1,174 @@
+// =====================================================================
+// ParallelGradeEngine - grade big rosters on every core (and SIMD lanes)
+// =====================================================================
+// grade() splits the rows into pieces with fork/join so every CPU core
+// grades its own piece. Each piece is graded by GradeVectorKernel when
+// the Vector API is available (run with --add-modules jdk.incubator.vector),
+// otherwise by the plain GradeEngine loop. -Dgrade.scalar=true forces the
+// plain loop. All paths give bit-for-bit the same results.
+//
+// Self-check (compares every path on random rosters):
+//   java --add-modules jdk.incubator.vector ParallelGradeEngine --verify
+// =====================================================================
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class ParallelGradeEngine {
+
+    // Pieces smaller than this are graded on one thread (splitting costs more than it saves)
+    public static final int SPLIT_THRESHOLD = 16384;
+
+    private static final boolean VECTOR_AVAILABLE = detectVectorApi();
+
+    private ParallelGradeEngine() {
+    }
+
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Grades rows [from, to) using all cores of the common fork/join pool.
+     */
+    public static void grade(GradeRoster roster, int from, int to) {
+        long start = Metrics.start();
+        if (to - from <= SPLIT_THRESHOLD) {
+            gradeVectorized(roster, from, to);
+        } else {
+            ForkJoinPool.commonPool().invoke(new GradeTask(roster, from, to));
+        }
+        Metrics.GRADE_COMPUTE.recordSince(start);
+        Metrics.GRADE_ROWS.add(to - from);
+    }
+
+    /**
+     * Grades rows [from, to) on the calling thread, with SIMD lanes when available.
+     */
+    public static void gradeVectorized(GradeRoster roster, int from, int to) {
+        if (VECTOR_AVAILABLE) {
+            GradeVectorKernel.grade(roster.lab1, roster.lab2, roster.lab3, roster.absents,
+                roster.classStanding, roster.requiredToPass, roster.requiredFor100, roster.maxPossibleGrade,
+                from, to);
+        } else {
+            GradeEngine.grade(roster, from, to);
+        }
+    }
+
+    // Splits the row range in half until the pieces are small enough
+    private static final class GradeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final GradeRoster roster;
+        private final int from;
+        private final int to;
+
+        GradeTask(GradeRoster roster, int from, int to) {
+            this.roster = roster;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                gradeVectorized(roster, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GradeTask(roster, from, middle), new GradeTask(roster, middle, to));
+            }
+        }
+    }
+
+    private static boolean detectVectorApi() {
+        if (Boolean.getBoolean("grade.scalar")) {
+            return false;
+        }
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return false;
+        }
+        try {
+            // Loading the kernel fails if this JDK has no (usable) Vector API
+            return GradeVectorKernel.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    // =====================================================================
+    // Self-check: scalar vs. vector vs. parallel must match bit for bit
+    // =====================================================================
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !args[0].equals("--verify")) {
+            System.err.println("Usage: java --add-modules jdk.incubator.vector ParallelGradeEngine --verify [rosters] [rows]");
+            System.exit(2);
+        }
+        int rosters = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int maxRows = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        System.out.println("Vector API: " + (VECTOR_AVAILABLE ? GradeVectorKernel.lanes() + " lanes" : "not available (scalar fallback)"));
+
+        Random random = new Random(42);
+        long checked = 0;
+        for (int r = 0; r < rosters; r++) {
+            int rows = 1 + random.nextInt(maxRows);
+            GradeRoster scalar = randomRoster(random, rows);
+            GradeRoster vector = copyInputs(scalar);
+            GradeRoster parallel = copyInputs(scalar);
+
+            GradeEngine.grade(scalar, 0, rows);
+            gradeVectorized(vector, 0, rows);
+            grade(parallel, 0, rows);
+
+            String mismatch = compare(scalar, vector, "vector");
+            if (mismatch == null) {
+                mismatch = compare(scalar, parallel, "parallel");
+            }
+            if (mismatch != null) {
+                System.out.println("FAILED on roster " + r + ": " + mismatch);
+                System.exit(1);
+            }
+            checked += rows;
+        }
+        System.out.println("OK: " + checked + " rows identical across scalar, vector and parallel paths");
+    }
+
+    // Mostly realistic scores, plus some out-of-range and fractional values
+    private static GradeRoster randomRoster(Random random, int rows) {
+        GradeRoster roster = new GradeRoster(rows);
+        for (int i = 0; i < rows; i++) {
+            if (random.nextInt(10) == 0) {
+                roster.add(random.nextDouble() * 400 - 200, random.nextDouble() * 1e6,
+                    -random.nextDouble(), random.nextInt() / 16);
+            } else {
+                roster.add(random.nextInt(101), random.nextDouble() * 100, random.nextInt(101), random.nextInt(15));
+            }
+        }
+        return roster;
+    }
+
+    private static GradeRoster copyInputs(GradeRoster source) {
+        GradeRoster copy = new GradeRoster(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            copy.add(source.lab1[i], source.lab2[i], source.lab3[i], source.absents[i]);
+        }
+        return copy;
+    }
+
+    private static String compare(GradeRoster expected, GradeRoster actual, String path) {
+        for (int i = 0; i < expected.size(); i++) {
+            if (!same(expected.classStanding[i], actual.classStanding[i])
+                || !same(expected.requiredToPass[i], actual.requiredToPass[i])
+                || !same(expected.requiredFor100[i], actual.requiredFor100[i])
+                || !same(expected.maxPossibleGrade[i], actual.maxPossibleGrade[i])) {
+                return path + " path differs at row " + i;
+            }
+        }
+        return null;
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToRawLongBits(a) == Double.doubleToRawLongBits(b);
+    }
+}
@@ -0,0 +1,359 @@
+// =====================================================================
+// ResultView - the Calculator's two result areas, without HTML
+// =====================================================================
+// The Calculator used to build two "<html>...<font color=...>" strings
+// with String.format for every result, and Swing then had to parse that
+// HTML into a little document before drawing it. That was most of the
+// time a click took.
+//
+// This class builds the labels ONCE (fonts, colors, fixed words like
+// "To Pass (75):") and afterwards only changes plain text and colors.
+// Plain text is never parsed, and a label given the same text again
+// does nothing at all.
+//
+// The text for a result is kept in a small LRU cache keyed on the
+// rounded (class standing, required to pass, required for 100) numbers,
+// so a result that was shown before skips the formatting too.
+//
+// Use it from the EDT only (like any Swing component).
+// =====================================================================
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class ResultView {
+
+    // Most results kept in the cache (least recently shown goes first)
+    public static final int CACHE_SIZE = 256;
+
+    // Same look as the old HTML labels (shared with the rest of the window)
+    private static final Font TEXT_FONT = UiStyle.TEXT;
+    private static final Font TITLE_FONT = UiStyle.TEXT_BOLD;
+
+    // The colors Swing used for <font color='...'>
+    private static final Color RED = new Color(255, 0, 0);
+    private static final Color GREEN = new Color(0, 128, 0);
+    private static final Color BLUE = new Color(0, 0, 255);
+    private static final Color ORANGE = new Color(255, 128, 0);
+
+    // Which of the three messages a required score gets
+    private static final int OVER_100 = 0;      // Can't reach it
+    private static final int ZERO_OR_LESS = 1;  // Already there
+    private static final int NORMAL = 2;
+
+    // "Attendance Score: ..." for 0 to 10 absents (the only usual values)
+    private static final String[] ATTENDANCE_LINES = new String[11];
+    static {
+        for (int i = 0; i < ATTENDANCE_LINES.length; i++) {
+            ATTENDANCE_LINES[i] = "Attendance Score: " + Fixed2.format(i * 10.0);
+        }
+    }
+
+    // ============================================
+    // The labels (made once)
+    // ============================================
+    private final JPanel resultPanel = new JPanel(new GridBagLayout());
+    private final JLabel attendanceLine = textLabel();
+    private final JLabel labLine = textLabel();
+    private final JLabel standingLine = textLabel();
+    private final Color normalColor = attendanceLine.getForeground();
+
+    private final JPanel requiredPanel = new JPanel(new GridBagLayout());
+    private final JLabel requiredTitle = textLabel();
+    private final JPanel passRow = row();
+    private final JLabel passValue = textLabel();
+    private final JPanel perfectRow = row();
+    private final JLabel perfectValue = textLabel();
+
+    // ============================================
+    // The cache
+    // ============================================
+
+    // Rounded numbers a result is looked up by (see Fixed2.key)
+    private static final class Key {
+        long classStanding;
+        long requiredToPass;
+        long requiredFor100;
+
+        Key(long classStanding, long requiredToPass, long requiredFor100) {
+            this.classStanding = classStanding;
+            this.requiredToPass = requiredToPass;
+            this.requiredFor100 = requiredFor100;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return classStanding == key.classStanding
+                && requiredToPass == key.requiredToPass
+                && requiredFor100 == key.requiredFor100;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(classStanding * 31 * 31 + requiredToPass * 31 + requiredFor100);
+        }
+    }
+
+    // Everything shown for one result, ready to hand to the labels
+    private static final class Rendering {
+        final String standingLine;
+        final String passText;
+        final Color passColor;
+        final String perfectText;
+        final Color perfectColor;
+
+        // The exact numbers it was made from: the same numbers again (the
+        // usual hit) can use it without any more checks
+        final double requiredToPass;
+        final double requiredFor100;
+        final double maxPossibleGrade;
+
+        // The rounded numbers alone don't decide these (100.004 and 99.996
+        // both round to 100.00), so for different numbers with the same key
+        // a cached Rendering is only used when they match too
+        final int passKind;
+        final int perfectKind;
+        final long maxGrade;
+
+        Rendering(String standingLine, String passText, Color passColor, String perfectText, Color perfectColor,
+                  double requiredToPass, double requiredFor100, double maxPossibleGrade,
+                  int passKind, int perfectKind, long maxGrade) {
+            this.standingLine = standingLine;
+            this.passText = passText;
+            this.passColor = passColor;
+            this.perfectText = perfectText;
+            this.perfectColor = perfectColor;
+            this.requiredToPass = requiredToPass;
+            this.requiredFor100 = requiredFor100;
+            this.maxPossibleGrade = maxPossibleGrade;
+            this.passKind = passKind;
+            this.perfectKind = perfectKind;
+            this.maxGrade = maxGrade;
+        }
+
+        boolean fits(double requiredToPass, double requiredFor100, double maxPossibleGrade) {
+            if (requiredToPass == this.requiredToPass && requiredFor100 == this.requiredFor100
+                    && maxPossibleGrade == this.maxPossibleGrade) {
+                return true;
+            }
+            return kind(requiredToPass) == passKind && kind(requiredFor100) == perfectKind
+                && Fixed2.key(maxPossibleGrade) == maxGrade;
+        }
+    }
+
+    // LinkedHashMap in access order = an LRU list; the oldest entry is
+    // dropped once there are more than CACHE_SIZE
+    private final Map<Key, Rendering> cache = new LinkedHashMap<Key, Rendering>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Rendering> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final Key probe = new Key(0, 0, 0);   // Reused for lookups, never stored
+    private long cacheHits;
+    private long cacheMisses;
+
+    public ResultView() {
+        addLine(resultPanel, attendanceLine, 0);
+        addLine(resultPanel, labLine, 1);
+        addLine(resultPanel, standingLine, 2);
+
+        passRow.add(prefixLabel("To Pass (75): "));
+        passRow.add(passValue);
+        perfectRow.add(prefixLabel("For Perfect (100): "));
+        perfectRow.add(perfectValue);
+        addLine(requiredPanel, requiredTitle, 0);
+        addLine(requiredPanel, passRow, 1);
+        addLine(requiredPanel, perfectRow, 2);
+
+        showPlaceholder();
+    }
+
+    /** Top area: attendance, lab average and class standing. */
+    public JComponent resultPanel() {
+        return resultPanel;
+    }
+
+    /** Bottom area: prelim exam needed to pass and for a perfect 100. */
+    public JComponent requiredPanel() {
+        return requiredPanel;
+    }
+
+    // ============================================
+    // What the Calculator calls
+    // ============================================
+
+    /** Shows a graded student. */
+    public void showResult(double attendance, double labWorkAverage, double classStanding,
+                           double requiredToPass, double requiredFor100, double maxPossibleGrade) {
+        Rendering rendering = lookup(classStanding, requiredToPass, requiredFor100, maxPossibleGrade);
+
+        attendanceLine.setForeground(normalColor);  // Back to normal after the red error message
+        attendanceLine.setText(attendanceLine(attendance));
+        labLine.setText("Lab Work Average: " + Fixed2.format(labWorkAverage));
+        labLine.setVisible(true);
+        standingLine.setText(rendering.standingLine);
+        standingLine.setVisible(true);
+
+        requiredTitle.setFont(TITLE_FONT);
+        requiredTitle.setText("Required Prelim Exam Score:");
+        passValue.setText(rendering.passText);
+        passValue.setForeground(rendering.passColor);
+        passRow.setVisible(true);
+        perfectValue.setText(rendering.perfectText);
+        perfectValue.setForeground(rendering.perfectColor);
+        perfectRow.setVisible(true);
+    }
+
+    /** Shown while some box is still empty. */
+    public void showPlaceholder() {
+        showMessages("Your grade will show here", null, "Required prelim exam scores will show here");
+    }
+
+    /** Shown when a box holds something that isn't a number. */
+    public void showInvalidInput() {
+        showMessages("Please enter valid numbers!", RED, "");
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    // One line of text in each area (an empty bottom line shows nothing)
+    private void showMessages(String top, Color topColor, String bottom) {
+        attendanceLine.setText(top);
+        attendanceLine.setForeground(topColor != null ? topColor : normalColor);
+        labLine.setVisible(false);
+        standingLine.setVisible(false);
+
+        requiredTitle.setFont(TEXT_FONT);
+        requiredTitle.setText(bottom);
+        passRow.setVisible(false);
+        perfectRow.setVisible(false);
+    }
+
+    // ============================================
+    // Cache lookup and building the text
+    // ============================================
+
+    private Rendering lookup(double classStanding, double requiredToPass, double requiredFor100,
+                             double maxPossibleGrade) {
+        probe.classStanding = Fixed2.key(classStanding);
+        probe.requiredToPass = Fixed2.key(requiredToPass);
+        probe.requiredFor100 = Fixed2.key(requiredFor100);
+
+        Rendering rendering = cache.get(probe);
+        if (rendering != null && rendering.fits(requiredToPass, requiredFor100, maxPossibleGrade)) {
+            cacheHits++;
+            return rendering;
+        }
+        cacheMisses++;
+        rendering = render(classStanding, requiredToPass, requiredFor100, maxPossibleGrade);
+        if (probe.classStanding != Fixed2.NONE && probe.requiredToPass != Fixed2.NONE
+                && probe.requiredFor100 != Fixed2.NONE) {
+            cache.put(new Key(probe.classStanding, probe.requiredToPass, probe.requiredFor100), rendering);
+        }
+        return rendering;
+    }
+
+    // Same words and colors as the old HTML version
+    private static Rendering render(double classStanding, double requiredToPass, double requiredFor100,
+                                    double maxPossibleGrade) {
+        int passKind = kind(requiredToPass);
+        int perfectKind = kind(requiredFor100);
+        String passText;
+        Color passColor;
+        if (passKind == OVER_100) {
+            passText = "Cannot pass (need " + Fixed2.format(requiredToPass) + ")";
+            passColor = RED;
+        } else if (passKind == ZERO_OR_LESS) {
+            passText = "ALREADY PASSING! (need 0 or less)";
+            passColor = GREEN;
+        } else {
+            passText = Fixed2.format(requiredToPass);
+            passColor = BLUE;
+        }
+
+        long maxGrade = Fixed2.key(maxPossibleGrade);
+        String max = "(Max grade: " + (maxGrade == Fixed2.NONE
+            ? Fixed2.format(maxPossibleGrade) : Fixed2.format(maxGrade)) + ")";
+        String perfectText;
+        Color perfectColor;
+        if (perfectKind == OVER_100) {
+            perfectText = "Need " + Fixed2.format(requiredFor100) + " " + max;
+            perfectColor = ORANGE;
+        } else if (perfectKind == ZERO_OR_LESS) {
+            perfectText = "GUARANTEED! " + max;
+            perfectColor = GREEN;
+        } else {
+            perfectText = Fixed2.format(requiredFor100) + " " + max;
+            perfectColor = BLUE;
+        }
+
+        return new Rendering("Class Standing: " + Fixed2.format(classStanding),
+            passText, passColor, perfectText, perfectColor,
+            requiredToPass, requiredFor100, maxPossibleGrade, passKind, perfectKind, maxGrade);
+    }
+
+    private static int kind(double requiredScore) {
+        if (requiredScore > 100) {
+            return OVER_100;
+        }
+        return requiredScore <= 0 ? ZERO_OR_LESS : NORMAL;
+    }
+
+    private static String attendanceLine(double attendance) {
+        int tens = (int) (attendance / 10);
+        if (tens >= 0 && tens < ATTENDANCE_LINES.length && tens * 10.0 == attendance) {
+            return ATTENDANCE_LINES[tens];
+        }
+        return "Attendance Score: " + Fixed2.format(attendance);
+    }
+
+    // ============================================
+    // Building the panels
+    // ============================================
+
+    private static JLabel textLabel() {
+        JLabel label = new JLabel();
+        label.setFont(TEXT_FONT);
+        return label;
+    }
+
+    private static JLabel prefixLabel(String text) {
+        JLabel label = textLabel();
+        label.setText(text);
+        return label;
+    }
+
+    // A line made of a fixed prefix and a colored value, side by side
+    private static JPanel row() {
+        JPanel row = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        row.setOpaque(false);
+        return row;
+    }
+
+    // Lines are stacked and the whole block is centered, like <center> did
+    private static void addLine(JPanel panel, JComponent line, int index) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = 0;
+        c.gridy = index;
+        panel.add(line, c);
+    }
+}
@@ -0,0 +1,87 @@
+// =====================================================================
+// WhatIfTable - "what prelim exam do I need if...?" for many cases at once
+// =====================================================================
+// A small window with a table:
+//   rows    = number of absents (0 to 10)
+//   columns = lab 3 score (0, 10, ..., 100)
+//   cell    = prelim exam score needed to pass (75), using the lab 1 and
+//             lab 2 grades typed in the Calculator
+//
+// The numbers come from LiveGradeUpdater (computed on its background
+// thread); this class only shows them.
+// =====================================================================
+
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+
+public final class WhatIfTable extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SweepModel model = new SweepModel();
+    private final JLabel hint = new JLabel();
+
+    public WhatIfTable(JFrame owner) {
+        super(owner, "What-if: Prelim Exam Needed to Pass", false);  // false = doesn't block the Calculator
+        JTable table = new JTable(model);
+        table.getTableHeader().setReorderingAllowed(false);
+        add(hint, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        setSize(900, 260);
+        setLocationRelativeTo(owner);
+        show(null);
+    }
+
+    /**
+     * Shows new cells (call on the EDT). null means lab 1 or lab 2 is missing.
+     */
+    public void show(double[][] cells) {
+        hint.setText(cells == null
+            ? "  Enter lab work grades 1 and 2 to fill the table."
+            : "  Rows: no. of absents. Columns: lab work grade 3. Cells: prelim exam needed to pass (75).");
+        model.cells = cells;
+        model.fireTableDataChanged();
+    }
+
+    // Table that reads straight from the cells array
+    private static final class SweepModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        double[][] cells;
+
+        @Override
+        public int getRowCount() {
+            return cells == null ? 0 : cells.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return LiveGradeUpdater.SWEEP_LAB3.length + 1;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Absents" : "Lab 3 = " + (int) LiveGradeUpdater.SWEEP_LAB3[column - 1];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            if (column == 0) {
+                return LiveGradeUpdater.SWEEP_ABSENTS[row];
+            }
+            double required = cells[row][column - 1];
+            if (required > 100) {
+                return "Can't pass";
+            }
+            if (required <= 0) {
+                return "Passing";
+            }
+            return Fixed2.format(required);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Import for watching the window open
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.SwingUtilities;
+// Import for the launch time
+import java.time.Instant;
+
+/**
+ * Measures how long a kiosk launch takes to show its first frame and to
+ * become ready for input (-Dstartup.probe=true prints both, -Dstartup.probe=exit
+ * also exits right after, for benchmarks/startup.sh and the AppCDS training run).
+ *
+ * Time is counted from -Dstartup.launchedAt (epoch millis, set by the
+ * launching script) or else from the process start, so it includes JVM
+ * startup and class loading. The frame counts as shown once its window
+ * has opened and the EDT has handled the events queued with it (the first
+ * paint), so a display is needed; the scripts use xvfb-run without one.
+ * An app is ready when it calls ready(): every control works, including
+ * the ones that waited for data loaded in the background.
+ *
+ * Without the property nothing is measured and no listener is added.
+ */
+public final class StartupProbe {
+
+    private static final String MODE = System.getProperty("startup.probe");
+
+    // Milliseconds since launch, -1 until reached
+    private static long firstFrame = -1;
+    private static long ready = -1;
+    private static boolean reported;
+
+    private StartupProbe() {
+    }
+
+    /** Times the window's first frame; call before setVisible(true). */
+    public static void watch(String name, Window window) {
+        if (MODE == null) {
+            return;
+        }
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                // The first paint is queued by now; count it once the EDT got to it
+                SwingUtilities.invokeLater(() -> firstFrame(name));
+            }
+        });
+    }
+
+    /** Marks the app as ready for input (any thread). */
+    public static void ready(String name) {
+        if (MODE == null) {
+            return;
+        }
+        synchronized (StartupProbe.class) {
+            ready = sinceLaunch();
+        }
+        reportWhenDone(name);
+    }
+
+    private static void firstFrame(String name) {
+        synchronized (StartupProbe.class) {
+            firstFrame = sinceLaunch();
+        }
+        reportWhenDone(name);
+    }
+
+    // Prints once both points are reached, in whichever order they come
+    private static void reportWhenDone(String name) {
+        synchronized (StartupProbe.class) {
+            if (firstFrame < 0 || ready < 0 || reported) {
+                return;
+            }
+            reported = true;
+            System.out.println(name + ": first frame after " + firstFrame + " ms, ready after "
+                + Math.max(firstFrame, ready) + " ms");
+        }
+        if (MODE.equals("exit")) {
+            System.exit(0);
+        }
+    }
+
+    private static long sinceLaunch() {
+        long now = System.currentTimeMillis();
+        long launched = Long.getLong("startup.launchedAt", ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(now));
+        return now - launched;
+    }
+}
@@ -0,0 +1,169 @@
+// Import for time zone rules
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Clock and formatter for Time In values.
+ * Records keep Time In as epoch milliseconds; text in the
+ * "yyyy-MM-dd HH:mm:ss" format is only made for display or export.
+ *
+ * Formatting is cached instead of going through DateTimeFormatter each time:
+ * - the "yyyy-MM-dd HH:mm:" prefix is worked out once per minute, and
+ *   formatTo() copies it and writes the two second digits straight into a
+ *   caller's char[] or byte[] (no objects created)
+ * - format() keeps the last String it made, so every call within the same
+ *   second returns that String
+ *
+ * Cached values are immutable and published through volatile fields, so one
+ * clock can be shared by the Swing form and any import thread.
+ */
+public final class TimeInClock {
+
+    /** Length of "yyyy-MM-dd HH:mm:ss". */
+    public static final int LENGTH = 19;
+
+    private static final int PREFIX_LENGTH = 17; // "yyyy-MM-dd HH:mm:"
+
+    private static final TimeInClock SYSTEM = new TimeInClock(ZoneId.systemDefault());
+
+    // One local minute: the UTC millisecond range it covers and its formatted prefix
+    private static final class Minute {
+        final long startMillis;
+        final long endMillis;
+        final char[] prefix;
+
+        Minute(long startMillis, long endMillis, char[] prefix) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.prefix = prefix;
+        }
+    }
+
+    // One second's formatted text
+    private static final class Second {
+        final long startMillis;
+        final String text;
+
+        Second(long startMillis, String text) {
+            this.startMillis = startMillis;
+            this.text = text;
+        }
+    }
+
+    private final ZoneRules rules;
+    private volatile Minute minute = new Minute(0, 0, new char[PREFIX_LENGTH]);
+    private volatile Second second = new Second(Long.MIN_VALUE, null);
+
+    public TimeInClock(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    /** Shared clock for the system default time zone. */
+    public static TimeInClock system() {
+        return SYSTEM;
+    }
+
+    /** Current time as epoch milliseconds (what records store). */
+    public long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the time as "yyyy-MM-dd HH:mm:ss".
+     * Calls within the same second return the same String.
+     */
+    public String format(long epochMillis) {
+        long secondStart = Math.floorDiv(epochMillis, 1000) * 1000;
+        Second cached = second;
+        if (cached.startMillis == secondStart) {
+            return cached.text;
+        }
+        char[] chars = new char[LENGTH];
+        formatTo(epochMillis, chars, 0);
+        String text = new String(chars);
+        second = new Second(secondStart, text);
+        return text;
+    }
+
+    /**
+     * Writes "yyyy-MM-dd HH:mm:ss" into dst starting at offset and returns the
+     * offset after the last character. Creates no objects unless the minute changed.
+     */
+    public int formatTo(long epochMillis, char[] dst, int offset) {
+        Minute m = minuteOf(epochMillis);
+        System.arraycopy(m.prefix, 0, dst, offset, PREFIX_LENGTH);
+        int seconds = secondsInto(m, epochMillis);
+        dst[offset + PREFIX_LENGTH] = (char) ('0' + seconds / 10);
+        dst[offset + PREFIX_LENGTH + 1] = (char) ('0' + seconds % 10);
+        return offset + LENGTH;
+    }
+
+    /**
+     * Same as formatTo(long, char[], int) but writes ASCII bytes (for file export).
+     */
+    public int formatTo(long epochMillis, byte[] dst, int offset) {
+        Minute m = minuteOf(epochMillis);
+        char[] prefix = m.prefix;
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            dst[offset + i] = (byte) prefix[i];
+        }
+        int seconds = secondsInto(m, epochMillis);
+        dst[offset + PREFIX_LENGTH] = (byte) ('0' + seconds / 10);
+        dst[offset + PREFIX_LENGTH + 1] = (byte) ('0' + seconds % 10);
+        return offset + LENGTH;
+    }
+
+    private static int secondsInto(Minute m, long epochMillis) {
+        return (int) ((epochMillis - m.startMillis) / 1000);
+    }
+
+    // Returns the cached minute containing epochMillis, working out a new one if needed
+    private Minute minuteOf(long epochMillis) {
+        Minute cached = minute;
+        if (epochMillis >= cached.startMillis && epochMillis < cached.endMillis) {
+            return cached;
+        }
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        ZoneOffset offset = rules.getOffset(instant);
+        long offsetMillis = offset.getTotalSeconds() * 1000L;
+        long start = Math.floorDiv(epochMillis + offsetMillis, 60_000L) * 60_000L - offsetMillis;
+        long end = start + 60_000L;
+        // Don't let the cached minute run past a daylight-saving change
+        ZoneOffsetTransition transition = rules.nextTransition(instant);
+        if (transition != null) {
+            end = Math.min(end, transition.toEpochSecond() * 1000L);
+        }
+
+        LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(start, 1000L), 0, offset);
+        char[] prefix = new char[PREFIX_LENGTH];
+        int year = local.getYear();
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("Year out of range for Time In: " + year);
+        }
+        putDigits(prefix, 0, year, 4);
+        prefix[4] = '-';
+        putDigits(prefix, 5, local.getMonthValue(), 2);
+        prefix[7] = '-';
+        putDigits(prefix, 8, local.getDayOfMonth(), 2);
+        prefix[10] = ' ';
+        putDigits(prefix, 11, local.getHour(), 2);
+        prefix[13] = ':';
+        putDigits(prefix, 14, local.getMinute(), 2);
+        prefix[16] = ':';
+
+        Minute fresh = new Minute(start, end, prefix);
+        minute = fresh;
+        return fresh;
+    }
+
+    private static void putDigits(char[] dst, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            dst[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
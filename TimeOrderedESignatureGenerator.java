@@ -0,0 +1,78 @@
+// Import for the E-Signature value
+import java.util.UUID;
+// Import for contention-free random bits
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered E-Signatures in the UUIDv7 layout (RFC 9562):
+ * - 48 bits : Unix time in milliseconds
+ * - 4 bits  : version (7)
+ * - 12 bits : counter, so IDs made in the same millisecond still increase
+ * - 2 bits  : variant
+ * - 62 bits : random
+ *
+ * The timestamp is the record's Time In, not the time of signing, so IDs
+ * sort by check-in time even for records signed later (a CSV import).
+ * Each thread keeps its own last timestamp and counter, and the random bits
+ * come from ThreadLocalRandom, so no lock is shared between threads.
+ * IDs from one thread for the same or later Time Ins are strictly
+ * increasing; a Time In older than the thread's last one (an import out of
+ * order) keeps its own millisecond, and the random bits keep it unique.
+ * Because live check-ins arrive in time order, inserting them into the
+ * journal or an index mostly appends at the end.
+ */
+public final class TimeOrderedESignatureGenerator implements ESignatureGenerator {
+
+    private static final int MAX_COUNTER = 0xFFF;
+
+    // Per-thread generator state
+    private static final class State {
+        long lastMillis = -1;
+        int counter;
+    }
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public UUID next(String name, String courseYear, long timeInMillis) {
+        return nextAt(timeInMillis);
+    }
+
+    /**
+     * Returns the next ID for a record checked in at the given time.
+     */
+    UUID nextAt(long timeInMillis) {
+        State s = state.get();
+        long millis;
+        int counter;
+        if (timeInMillis > s.lastMillis) {
+            s.lastMillis = timeInMillis;
+            s.counter = 0;
+            millis = s.lastMillis;
+            counter = 0;
+        } else if (timeInMillis < s.lastMillis) {
+            // An older Time In: stamp its own time and leave this thread's sequence alone
+            millis = timeInMillis;
+            counter = ThreadLocalRandom.current().nextInt(MAX_COUNTER + 1);
+        } else {
+            if (s.counter < MAX_COUNTER) {
+                // Same millisecond: bump the counter
+                s.counter++;
+            } else {
+                // Counter used up: borrow the next millisecond so order is kept
+                s.lastMillis++;
+                s.counter = 0;
+            }
+            millis = s.lastMillis;
+            counter = s.counter;
+        }
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() >>> 2) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /** Returns the Unix time in milliseconds stored in a UUIDv7. */
+    public static long timestampOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
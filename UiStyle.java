@@ -0,0 +1,27 @@
+// Import for fonts and colors
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * Fonts and colors shared by the Attendance Tracker and the Grade Calculator.
+ *
+ * Each style is made once and handed to every component that uses it,
+ * instead of a new Font per label, field and button. Startup then resolves
+ * each font face once, and all components share the same Font objects.
+ */
+public final class UiStyle {
+
+    // ===== Fonts =====
+    public static final Font TEXT = new Font("Arial", Font.PLAIN, 14);       // Labels and input fields
+    public static final Font TEXT_BOLD = TEXT.deriveFont(Font.BOLD);          // Buttons and headings
+    public static final Font TITLE = TEXT.deriveFont(Font.BOLD, 18f);         // Window titles
+    public static final Font BIG_BUTTON = TEXT.deriveFont(Font.BOLD, 16f);    // Main action buttons
+    public static final Font SMALL = TEXT.deriveFont(12f);                    // Long generated values
+    public static final Font STATUS = TEXT.deriveFont(11f);                   // Status lines
+
+    // ===== Colors =====
+    public static final Color READ_ONLY_BACKGROUND = new Color(240, 240, 240); // Fields filled in by the app
+
+    private UiStyle() {
+    }
+}
@@ -2,11 +2,23 @@
 import javax.swing.*;
 // Import AWT for layout management and styling
 import java.awt.*;
-// Import for date and time functionality
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-// Import for generating unique E-Signature
+// Import for the attendance journal
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+// Import for the daily report
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+// Import for the E-Signature value
 import java.util.UUID;
+// Import for checking logins off the EDT
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+// Import for opening the journal while the window is built
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Attendance Tracker Application
@@ -15,14 +27,271 @@ import java.util.UUID;
  * - Course/Year field
  * - Time In (auto-generated from system time)
  * - E-Signature (programmatically generated)
+ * Submitted records are handed to the attendance pipeline, which saves them
+ * to the attendance journal on a background writer thread
+ * (directory set by -Dattendance.journal.dir, default "attendance-journal").
+ * The window shows while the journal is opened and replayed on the main
+ * thread; Submit and Search are enabled once that is done.
+ * Saved records are also kept in an AttendanceIndex for the Search window,
+ * and counted in AttendanceRollups (per course/year and day totals, saved
+ * next to the journal); "java app --report [yyyy-MM-dd]" prints a day's totals.
+ * A second check-in with the same name and course/year on the same day is
+ * turned away as a repeat (DuplicateFilter; -Dattendance.dedup.window=off
+ * saves every check-in).
+ *
+ * "java app --server [port]" runs the shared, headless AttendanceServer instead;
+ * with -Dattendance.server=http://host:port the window posts check-ins to it.
+ * With -Dattendance.accounts=<file> (listofaccs.txt or a hashed CredentialStore
+ * file) each check-in must log in with its name and password; stations of a
+ * server with accounts use -Dattendance.login=true to show the Password field.
  */
 public class app {
     
+    // Persistent store for submitted attendance records
+    private static AttendanceJournal journal;
+    // Batching writer that saves records without blocking the EDT
+    private static AttendancePipeline pipeline;
+    // E-Signature mode, chosen with -Dattendance.signature (random, v7 or hmac)
+    private static ESignatureGenerator signatures;
+    // In-memory query index over every saved record
+    private static final AttendanceIndex index = new AttendanceIndex();
+    // Per course/year and day totals, kept up to date as records are saved (null until loaded)
+    private static volatile AttendanceRollups rollups;
+    // How often the roll-ups are saved next to the journal (they are also saved on exit)
+    private static final long ROLLUP_SAVE_SECONDS = 10;
+    // Done once the journal above is open (or could not be opened); Submit and Search wait for it
+    private static final CompletableFuture<Void> journalOpened = new CompletableFuture<>();
+    // Shared attendance server to post to instead of the local journal (null = save locally)
+    private static AttendanceClient remote;
+    // Accounts that may check in (null = no login required)
+    private static CredentialStore credentials;
+    // Password checks are slow on purpose, so they run here instead of on the EDT
+    private static final ExecutorService loginChecker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "attendance-login");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
     public static void main(String[] args) {
+        signatures = ESignatureGenerator.fromSystemProperties();
+        
+        // Command-line bulk import/export: "--import file.csv" or "--export file.csv" (no GUI)
+        if (args.length == 2 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            System.exit(runCsvCommand(args[0], Paths.get(args[1])));
+        }
+        
+        // End-of-day report from the roll-ups: "--report [yyyy-MM-dd]" (no GUI)
+        if (args.length >= 1 && args[0].equals("--report")) {
+            System.exit(runReport(args.length > 1 ? args[1] : null));
+        }
+        
+        // Optional logins for check-ins
+        String accounts = System.getProperty("attendance.accounts");
+        if (accounts != null) {
+            try {
+                credentials = CredentialStore.load(Paths.get(accounts));
+            } catch (IOException e) {
+                System.err.println("Could not load accounts: " + e.getMessage());
+                System.exit(1); // Don't fall back to accepting everyone
+            }
+        }
+        
+        // Headless server mode for many check-in stations: "--server [port]"
+        if (args.length >= 1 && args[0].equals("--server")) {
+            int port = args.length > 1 ? parsePort(args[1]) : AttendanceServer.DEFAULT_PORT;
+            if (port < 0) {
+                System.err.println("Usage: java app --server [port]   (port 0-65535, got \"" + args[1] + "\")");
+                System.exit(2);
+            }
+            if (!runServer(port)) {
+                System.exit(1);
+            }
+            return; // The server's threads keep the JVM running
+        }
+        
+        // Station mode: send check-ins to the shared server, no local journal
+        remote = AttendanceClient.fromSystemProperties();
+        if (remote != null) {
+            journalOpened.complete(null); // No local journal to wait for
+            SwingUtilities.invokeLater(() -> {
+                createAndShowGUI();
+            });
+            return;
+        }
+        
         // Use SwingUtilities to ensure thread safety for GUI
         SwingUtilities.invokeLater(() -> {
             createAndShowGUI();
         });
+        
+        // Meanwhile open the journal here, so the window shows without waiting
+        // for it and the EDT never touches the disk for it
+        openJournal();
+    }
+    
+    /**
+     * Opens the journal, loads earlier records into the index and repeat check,
+     * and starts the pipeline. Completes journalOpened either way; if the journal
+     * can't be opened, pipeline stays null. The roll-ups load afterwards on their
+     * own thread (a missing rollups.dat means reading the whole journal), and
+     * check-ins don't wait for them.
+     */
+    private static void openJournal() {
+        try {
+            Path directory = Paths.get(System.getProperty("attendance.journal.dir", "attendance-journal"));
+            journal = AttendanceJournal.open(directory);
+            DuplicateFilter duplicates = DuplicateFilter.fromSystemProperties(index);
+            journal.replay(record -> { // Load earlier records for searching and repeat checks
+                index.add(record);
+                if (duplicates != null) {
+                    duplicates.add(record);
+                }
+            });
+            pipeline = new AttendancePipeline(journal);
+            pipeline.setDuplicateFilter(duplicates);
+            pipeline.addCommitListener(index::add);
+            AttendanceRollups.attach(directory, pipeline).whenComplete((attached, error) -> {
+                if (error != null) {
+                    System.err.println("Could not load attendance roll-ups: " + causeOf(error).getMessage());
+                } else {
+                    rollups = attached;
+                    attached.startAutoSave(ROLLUP_SAVE_SECONDS);
+                }
+            });
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    pipeline.close(); // Writes anything still queued
+                    AttendanceRollups totals = rollups;
+                    if (totals != null) {
+                        totals.close();
+                    }
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close attendance journal: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("Could not open attendance journal: " + e.getMessage());
+        } finally {
+            journalOpened.complete(null);
+        }
+    }
+    
+    /**
+     * Opens the journal and serves it over HTTP until the process is stopped.
+     * Returns false if the journal or port could not be opened.
+     */
+    private static boolean runServer(int port) {
+        try {
+            Path directory = Paths.get(System.getProperty("attendance.journal.dir", "attendance-journal"));
+            journal = AttendanceJournal.open(directory);
+            DuplicateFilter duplicates = DuplicateFilter.fromSystemProperties(index);
+            journal.replay(record -> {
+                index.add(record);
+                if (duplicates != null) {
+                    duplicates.add(record);
+                }
+            });
+            // Completions only wake the waiting request thread, so they run right on the writer thread
+            pipeline = new AttendancePipeline(journal, AttendanceServer.DEFAULT_QUEUE_CAPACITY,
+                AttendancePipeline.DEFAULT_MAX_BATCH, Runnable::run);
+            pipeline.setDuplicateFilter(duplicates);
+            pipeline.addCommitListener(index::add);
+            // Nothing is served before the roll-ups are loaded, so wait for them here
+            AttendanceRollups totals = AttendanceRollups.attach(directory, pipeline).join();
+            rollups = totals;
+            totals.startAutoSave(ROLLUP_SAVE_SECONDS);
+            AttendanceServer server = AttendanceServer.start(new InetSocketAddress(port), pipeline, index, totals,
+                signatures, credentials);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                    pipeline.close(); // Writes anything still queued
+                    totals.close();
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close attendance journal: " + e.getMessage());
+                }
+            }));
+            System.out.println("Attendance server on port " + server.getPort() + " (" + index.size() + " records loaded)");
+            return true;
+        } catch (IOException | CompletionException e) {
+            System.err.println("Could not start attendance server: " + causeOf(e).getMessage());
+            return false;
+        }
+    }
+    
+    // The exception a CompletableFuture failed with
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Imports a CSV file into the journal or exports the journal to CSV.
+     * Returns the process exit code.
+     */
+    private static int runCsvCommand(String command, Path file) {
+        Path directory = Paths.get(System.getProperty("attendance.journal.dir", "attendance-journal"));
+        long start = System.nanoTime();
+        try (AttendanceJournal csvJournal = AttendanceJournal.open(directory)) {
+            long count = command.equals("--import")
+                ? AttendanceCsv.importInto(csvJournal, file, signatures)
+                : AttendanceCsv.export(csvJournal, file);
+            System.out.printf("%s %d attendance records in %.2f s%n",
+                command.equals("--import") ? "Imported" : "Exported", count, (System.nanoTime() - start) / 1e9);
+            return 0;
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Attendance " + command.substring(2) + " failed: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Prints every course/year's totals for one day (default today) from the
+     * roll-ups, without reading the whole journal. Returns the process exit code.
+     */
+    // The port number, or -1 when the text isn't one (0 = any free port)
+    private static int parsePort(String text) {
+        try {
+            int port = Integer.parseInt(text.trim());
+            return port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int runReport(String date) {
+        Path directory = Paths.get(System.getProperty("attendance.journal.dir", "attendance-journal"));
+        try {
+            LocalDate day = date == null ? LocalDate.now() : LocalDate.parse(date);
+            AttendanceRollups totals = AttendanceRollups.open(directory);
+            TimeInClock clock = TimeInClock.system();
+            System.out.printf("Attendance on %s (late = Time In after %s)%n", day, totals.getLateAfter());
+            System.out.printf("%-20s %8s %10s %6s %10s %10s %10s%n",
+                "Course/Year", "Present", "Check-ins", "Late", "First In", "Last In", "Days Met");
+            int present = 0;
+            int checkIns = 0;
+            int late = 0;
+            for (AttendanceRollups.DayTotals totalsOfDay : totals.days(null, day, day)) {
+                System.out.printf("%-20s %8d %10d %6d %10s %10s %10d%n",
+                    totalsOfDay.getCourseYear(), totalsOfDay.getPresent(), totalsOfDay.getCheckIns(),
+                    totalsOfDay.getLate(),
+                    clock.format(totalsOfDay.getFirstTimeIn()).substring(11),   // HH:mm:ss part
+                    clock.format(totalsOfDay.getLastTimeIn()).substring(11),
+                    totals.daysMet(totalsOfDay.getCourseYear()));
+                present += totalsOfDay.getPresent();
+                checkIns += totalsOfDay.getCheckIns();
+                late += totalsOfDay.getLate();
+            }
+            System.out.printf("%-20s %8d %10d %6d%n", "Total", present, checkIns, late);
+            return 0;
+        } catch (DateTimeParseException e) {
+            System.err.println("Report date must be yyyy-MM-dd: " + date);
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Attendance report failed: " + e.getMessage());
+            return 1;
+        }
     }
     
     /**
@@ -31,9 +300,11 @@ public class app {
     private static void createAndShowGUI() {
         // Create the main JFrame window with title
         JFrame frame = new JFrame("Attendance Tracker");
-        frame.setSize(500, 350); // Set window size
+        boolean loginRequired = credentials != null || (remote != null && Boolean.getBoolean("attendance.login"));
+        frame.setSize(500, loginRequired ? 420 : 380); // Set window size
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Exit on close
         frame.setLocationRelativeTo(null); // Center the window on screen
+        Metrics.watchEdt(); // With -Dmetrics=true, track how quickly the EDT responds
         
         // Create main panel with BorderLayout for organization
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
@@ -41,7 +312,7 @@ public class app {
         
         // Create title label at the top
         JLabel titleLabel = new JLabel("Attendance Tracking System", SwingConstants.CENTER);
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 18)); // Set title font
+        titleLabel.setFont(UiStyle.TITLE); // Set title font
         mainPanel.add(titleLabel, BorderLayout.NORTH);
         
         // Create form panel using GridBagLayout for proper alignment
@@ -52,71 +323,93 @@ public class app {
         
         // ===== Attendance Name Field =====
         JLabel nameLabel = new JLabel("Name:");
-        nameLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        nameLabel.setFont(UiStyle.TEXT);
         gbc.gridx = 0; // Column 0
         gbc.gridy = 0; // Row 0
         gbc.weightx = 0.3;
         formPanel.add(nameLabel, gbc);
         
         JTextField nameField = new JTextField(20); // Text field with 20 columns
-        nameField.setFont(new Font("Arial", Font.PLAIN, 14));
+        nameField.setFont(UiStyle.TEXT);
         gbc.gridx = 1; // Column 1
         gbc.gridy = 0; // Row 0
         gbc.weightx = 0.7;
         formPanel.add(nameField, gbc);
         
+        // ===== Password Field (only built when logins are required) =====
+        JPasswordField passwordField = loginRequired ? new JPasswordField(20) : null;
+        if (loginRequired) {
+            JLabel passwordLabel = new JLabel("Password:");
+            passwordLabel.setFont(UiStyle.TEXT);
+            gbc.gridx = 0; // Column 0
+            gbc.gridy = 1; // Row 1
+            formPanel.add(passwordLabel, gbc);
+            
+            passwordField.setFont(UiStyle.TEXT);
+            gbc.gridx = 1; // Column 1
+            gbc.gridy = 1; // Row 1
+            formPanel.add(passwordField, gbc);
+        }
+        
         // ===== Course/Year Field =====
         JLabel courseLabel = new JLabel("Course/Year:");
-        courseLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        courseLabel.setFont(UiStyle.TEXT);
         gbc.gridx = 0; // Column 0
-        gbc.gridy = 1; // Row 1
+        gbc.gridy = 2; // Row 2
         formPanel.add(courseLabel, gbc);
         
         JTextField courseField = new JTextField(20);
-        courseField.setFont(new Font("Arial", Font.PLAIN, 14));
+        courseField.setFont(UiStyle.TEXT);
         gbc.gridx = 1; // Column 1
-        gbc.gridy = 1; // Row 1
+        gbc.gridy = 2; // Row 2
         formPanel.add(courseField, gbc);
         
         // ===== Time In Field (Auto-generated) =====
         JLabel timeInLabel = new JLabel("Time In:");
-        timeInLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        timeInLabel.setFont(UiStyle.TEXT);
         gbc.gridx = 0; // Column 0
-        gbc.gridy = 2; // Row 2
+        gbc.gridy = 3; // Row 3
         formPanel.add(timeInLabel, gbc);
         
         JTextField timeInField = new JTextField(20);
-        timeInField.setFont(new Font("Arial", Font.PLAIN, 14));
+        timeInField.setFont(UiStyle.TEXT);
         timeInField.setEditable(false); // Make read-only since it's auto-generated
-        timeInField.setBackground(new Color(240, 240, 240)); // Light gray background
+        timeInField.setBackground(UiStyle.READ_ONLY_BACKGROUND); // Light gray background
         gbc.gridx = 1; // Column 1
-        gbc.gridy = 2; // Row 2
+        gbc.gridy = 3; // Row 3
         formPanel.add(timeInField, gbc);
         
-        // Get current system date and time with proper formatting
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        String timeIn = now.format(formatter); // Format the date/time nicely
-        timeInField.setText(timeIn); // Set the time in field
+        // Get current system time; records keep epoch millis and the clock
+        // formats it as "yyyy-MM-dd HH:mm:ss" only for display
+        TimeInClock clock = TimeInClock.system();
+        long timeInMillis = clock.now();
+        timeInField.setText(clock.format(timeInMillis)); // Set the time in field
         
         // ===== E-Signature Field (Programmatically Generated) =====
         JLabel eSignatureLabel = new JLabel("E-Signature:");
-        eSignatureLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        eSignatureLabel.setFont(UiStyle.TEXT);
         gbc.gridx = 0; // Column 0
-        gbc.gridy = 3; // Row 3
+        gbc.gridy = 4; // Row 4
         formPanel.add(eSignatureLabel, gbc);
         
         JTextField eSignatureField = new JTextField(20);
-        eSignatureField.setFont(new Font("Arial", Font.PLAIN, 12));
+        eSignatureField.setFont(UiStyle.SMALL);
         eSignatureField.setEditable(false); // Make read-only since it's auto-generated
-        eSignatureField.setBackground(new Color(240, 240, 240)); // Light gray background
+        eSignatureField.setBackground(UiStyle.READ_ONLY_BACKGROUND); // Light gray background
         gbc.gridx = 1; // Column 1
-        gbc.gridy = 3; // Row 3
+        gbc.gridy = 4; // Row 4
         formPanel.add(eSignatureField, gbc);
         
-        // Generate unique E-Signature using UUID
-        String eSignature = UUID.randomUUID().toString();
-        eSignatureField.setText(eSignature); // Set the e-signature field
+        // Generate unique E-Signature
+        eSignatureField.setText(previewSignature(timeInMillis)); // Set the e-signature field
+        
+        // Time In and E-Signature shown above are only a preview: each submit stamps
+        // and signs its own record, and the preview moves on once it is saved
+        Runnable refreshPreview = () -> {
+            long now = clock.now();
+            timeInField.setText(clock.format(now));
+            eSignatureField.setText(previewSignature(now));
+        };
         
         // Add form panel to the center of main panel
         mainPanel.add(formPanel, BorderLayout.CENTER);
@@ -126,47 +419,225 @@ public class app {
         
         // Submit button to confirm attendance
         JButton submitButton = new JButton("Submit Attendance");
-        submitButton.setFont(new Font("Arial", Font.BOLD, 14));
+        submitButton.setFont(UiStyle.TEXT_BOLD);
         submitButton.addActionListener(e -> {
-            // Validate that name and course fields are not empty
-            if (nameField.getText().trim().isEmpty() || courseField.getText().trim().isEmpty()) {
+            AttendanceSubmissionEvent event = AttendanceSubmissionEvent.begin(
+                remote != null ? AttendanceSubmissionEvent.REMOTE : AttendanceSubmissionEvent.STATION,
+                courseField.getText().trim());
+            long validationStart = System.nanoTime();
+            // Validate that name and course fields are filled in and not too long
+            String problem = AttendanceRecord.validate(nameField.getText(), courseField.getText());
+            if (problem != null) {
+                Metrics.validated(event, validationStart, false);
+                event.finish(problem.equals(AttendanceRecord.MISSING_FIELDS_MESSAGE)
+                    ? AttendanceSubmissionEvent.MISSING_FIELDS : AttendanceSubmissionEvent.FIELD_TOO_LONG);
                 JOptionPane.showMessageDialog(frame, 
-                    "Please fill in all required fields (Name and Course/Year).", 
+                    problem, 
                     "Validation Error", 
                     JOptionPane.WARNING_MESSAGE);
             } else {
-                // Show confirmation message with attendance details
-                String message = "Attendance Recorded Successfully!\n\n" +
-                    "Name: " + nameField.getText() + "\n" +
-                    "Course/Year: " + courseField.getText() + "\n" +
-                    "Time In: " + timeInField.getText() + "\n" +
-                    "E-Signature: " + eSignatureField.getText();
-                JOptionPane.showMessageDialog(frame, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+                // Build an immutable record; everything after this happens off the EDT
+                String name = nameField.getText().trim();
+                String courseYear = courseField.getText().trim();
+                char[] password = loginRequired ? passwordField.getPassword() : null;
+                if (loginRequired) {
+                    passwordField.setText("");
+                }
+                if (remote != null) {
+                    // The shared server checks the login, signs and saves the record
+                    Metrics.validated(event, validationStart, true);
+                    remote.submit(name, courseYear, clock.now(), password,
+                        (saved, error) -> showSaveResult(frame, event, saved, error, refreshPreview));
+                    if (password != null) {
+                        Arrays.fill(password, '\0');
+                    }
+                } else if (credentials != null) {
+                    // Check the login off the EDT, then submit back on it
+                    submitButton.setEnabled(false);
+                    loginChecker.execute(() -> {
+                        boolean valid = credentials.verify(name, password);
+                        Arrays.fill(password, '\0');
+                        Metrics.validated(event, validationStart, valid);
+                        Metrics.invokeLater(() -> {
+                            submitButton.setEnabled(true);
+                            if (valid) {
+                                submitLocally(frame, event, name, courseYear, clock, refreshPreview);
+                            } else {
+                                event.finish(AttendanceSubmissionEvent.LOGIN_FAILED);
+                                JOptionPane.showMessageDialog(frame,
+                                    CredentialStore.INVALID_LOGIN_MESSAGE,
+                                    "Login Failed",
+                                    JOptionPane.WARNING_MESSAGE);
+                            }
+                        });
+                    });
+                } else {
+                    Metrics.validated(event, validationStart, true);
+                    submitLocally(frame, event, name, courseYear, clock, refreshPreview);
+                }
             }
         });
         buttonPanel.add(submitButton);
         
         // Clear button to reset all fields
         JButton clearButton = new JButton("Clear");
-        clearButton.setFont(new Font("Arial", Font.BOLD, 14));
+        clearButton.setFont(UiStyle.TEXT_BOLD);
         clearButton.addActionListener(e -> {
             // Clear editable fields
             nameField.setText("");
             courseField.setText("");
+            if (loginRequired) {
+                passwordField.setText("");
+            }
             // Regenerate time and e-signature
-            LocalDateTime currentTime = LocalDateTime.now();
-            timeInField.setText(currentTime.format(formatter));
-            eSignatureField.setText(UUID.randomUUID().toString());
+            refreshPreview.run();
         });
         buttonPanel.add(clearButton);
         
-        // Add button panel to the bottom of main panel
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        // Search button opens the attendance search window (built on first use)
+        JButton searchButton = new JButton("Search");
+        searchButton.setFont(UiStyle.TEXT_BOLD);
+        JDialog[] searchDialog = { null };
+        if (remote != null) {
+            // Records live on the server; stations only check in
+            searchButton.setEnabled(false);
+            searchButton.setToolTipText("Search runs on the attendance server (GET /api/attendance)");
+        }
+        searchButton.addActionListener(e -> {
+            if (searchDialog[0] == null) {
+                AttendanceSearchPanel searchPanel = new AttendanceSearchPanel(index);
+                searchDialog[0] = new JDialog(frame, "Search Attendance", false);
+                searchDialog[0].add(searchPanel);
+                searchDialog[0].setSize(760, 420);
+                searchDialog[0].setLocationRelativeTo(frame);
+                searchPanel.search();
+            }
+            searchDialog[0].setVisible(true);
+        });
+        buttonPanel.add(searchButton);
+        
+        // ===== Status Line =====
+        // Shows pipeline queue depth, batch size and submit latency, refreshed every second
+        JLabel statusLabel = new JLabel(" ", SwingConstants.CENTER);
+        statusLabel.setFont(UiStyle.STATUS);
+        
+        // Submit and Search need the journal, which may still be loading
+        if (!journalOpened.isDone()) {
+            submitButton.setEnabled(false);
+            searchButton.setEnabled(false);
+            statusLabel.setText("Loading attendance records...");
+        }
+        journalOpened.thenRun(() -> Metrics.invokeLater(() -> {
+            submitButton.setEnabled(true);
+            searchButton.setEnabled(remote == null);
+            statusLabel.setText(" ");
+            if (pipeline != null) {
+                new Timer(1000, e -> {
+                    statusLabel.setText(pipeline.toString());
+                    statusLabel.setForeground(pipeline.isSaturated() ? Color.RED : Color.DARK_GRAY);
+                }).start();
+            }
+            StartupProbe.ready("app");
+        }));
+        
+        // Add buttons and status line to the bottom of main panel
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(statusLabel, BorderLayout.SOUTH);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
         
         // Add main panel to frame
         frame.add(mainPanel);
         
         // Make the frame visible
+        StartupProbe.watch("app", frame); // With -Dstartup.probe, report the time to this first frame
         frame.setVisible(true);
     }
+    
+    /**
+     * Returns the text for the E-Signature field before the form is submitted
+     */
+    private static String previewSignature(long timeInMillis) {
+        if (remote != null) {
+            return "(signed by server)";
+        }
+        if (signatures.isContentBound()) {
+            return "(signed on submit)";
+        }
+        return signatures.next("", "", timeInMillis).toString();
+    }
+    
+    /**
+     * Stamps, signs and hands a checked-in record to the pipeline (call on the EDT).
+     * The Time In is taken now, not from the form, which may have been open for hours.
+     */
+    private static void submitLocally(JFrame frame, AttendanceSubmissionEvent event,
+                                      String name, String courseYear, TimeInClock clock, Runnable refreshPreview) {
+        long timeIn = clock.now();
+        UUID eSignature = signatures.next(name, courseYear, timeIn);
+        AttendanceRecord record = new AttendanceRecord(name, courseYear, timeIn, eSignature);
+        if (pipeline == null) {
+            // No journal available: confirm without saving, like before
+            event.finish(AttendanceSubmissionEvent.NOT_SAVED);
+            refreshPreview.run();
+            showRecorded(frame, record);
+        } else if (!pipeline.submit(record, (saved, error) -> showSaveResult(frame, event, saved, error, refreshPreview))) {
+            // Queue is full: tell the user instead of waiting
+            event.finish(AttendanceSubmissionEvent.BUSY);
+            showBusy(frame);
+        }
+    }
+    
+    /**
+     * Shows the outcome of a submitted record (runs on the EDT once it is saved or failed);
+     * once saved, the form's Time In and E-Signature move on to the next check-in
+     */
+    private static void showSaveResult(JFrame frame, AttendanceSubmissionEvent event,
+                                       AttendanceRecord saved, Throwable error, Runnable refreshPreview) {
+        if (error instanceof AttendanceClient.BusyException) {
+            event.finish(AttendanceSubmissionEvent.BUSY);
+            showBusy(frame);
+        } else if (error instanceof DuplicateFilter.DuplicateException) {
+            // Already saved earlier in the same window (a double-tap or a second visit)
+            event.finish(AttendanceSubmissionEvent.DUPLICATE);
+            JOptionPane.showMessageDialog(frame,
+                error.getMessage(),
+                "Already Checked In",
+                JOptionPane.WARNING_MESSAGE);
+        } else if (error != null) {
+            event.finish(AttendanceSubmissionEvent.FAILED);
+            JOptionPane.showMessageDialog(frame,
+                "Could not save attendance: " + error.getMessage(),
+                "Storage Error",
+                JOptionPane.ERROR_MESSAGE);
+        } else {
+            event.finish(AttendanceSubmissionEvent.SAVED);
+            refreshPreview.run();
+            showRecorded(frame, saved);
+        }
+    }
+    
+    /**
+     * Tells the user the queue is full and to submit again
+     */
+    private static void showBusy(JFrame frame) {
+        JOptionPane.showMessageDialog(frame,
+            "The attendance system is busy. Please submit again in a moment.",
+            "System Busy",
+            JOptionPane.WARNING_MESSAGE);
+    }
+    
+    /**
+     * Shows the confirmation message with the attendance details
+     */
+    private static void showRecorded(JFrame frame, AttendanceRecord record) {
+        // Format the record's own time, since the form may have been cleared meanwhile
+        String timeIn = TimeInClock.system().format(record.getTimeInMillis());
+        String message = "Attendance Recorded Successfully!\n\n" +
+            "Name: " + record.getName() + "\n" +
+            "Course/Year: " + record.getCourseYear() + "\n" +
+            "Time In: " + timeIn + "\n" +
+            "E-Signature: " + record.getESignature();
+        JOptionPane.showMessageDialog(frame, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+    }
 }
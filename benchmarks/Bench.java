@@ -0,0 +1,222 @@
+// Import for per-thread allocation counters
+import java.lang.management.ManagementFactory;
+// Import for collecting results
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small benchmark harness (no external libraries needed).
+ * Each benchmark is warmed up, then run for a fixed time while counting
+ * operations. It reports:
+ * - ns/op   : average time per operation
+ * - ops/s   : throughput (all threads together)
+ * - B/op    : bytes allocated per operation, measured with the JVM's
+ *             per-thread allocation counter (same idea as JMH's gc.alloc.rate.norm)
+ * A benchmark can be given an allocation budget; check() then fails the run
+ * when the measured B/op goes over it, so extra garbage per record is caught.
+ * Benchmarks that also verify their results report wrong ones with fail().
+ *
+ * A Bench made with capture(name) runs nothing: it keeps the operation
+ * registered under that exact name, so jmh/HotPathJmh can measure the same
+ * code and fixtures under JMH.
+ */
+public final class Bench {
+
+    /** One benchmark operation. Return something derived from the work so it isn't optimized away. */
+    public interface Op {
+        Object run();
+    }
+
+    /** Measured numbers for one benchmark. */
+    public static final class Result {
+        final String name;
+        final int threads;
+        final double nanosPerOp;
+        final double opsPerSecond;
+        final double bytesPerOp;
+        final double maxBytesPerOp; // Budget, or -1 for none
+
+        Result(String name, int threads, double nanosPerOp, double opsPerSecond, double bytesPerOp, double maxBytesPerOp) {
+            this.name = name;
+            this.threads = threads;
+            this.nanosPerOp = nanosPerOp;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+            this.maxBytesPerOp = maxBytesPerOp;
+        }
+
+        boolean overBudget() {
+            return maxBytesPerOp >= 0 && bytesPerOp > maxBytesPerOp + BUDGET_TOLERANCE;
+        }
+    }
+
+    // Allowance for allocation noise from the JIT and the counters themselves
+    private static final double BUDGET_TOLERANCE = 0.01;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT can't drop the benchmarked work
+    private static volatile int sink;
+
+    private final long warmupMillis;
+    private final long measureMillis;
+    private final String filter;
+    private final boolean capturing;       // filter is an exact name, and run() keeps its operation
+    private Op captured;
+    private final List<Result> results = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+
+    public Bench(long warmupMillis, long measureMillis, String filter) {
+        this(warmupMillis, measureMillis, filter, false);
+    }
+
+    private Bench(long warmupMillis, long measureMillis, String filter, boolean capturing) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+        this.filter = filter;
+        this.capturing = capturing;
+    }
+
+    /** Returns a Bench that runs nothing and keeps the operation of the benchmark with this exact name. */
+    public static Bench capture(String name) {
+        return new Bench(0, 0, name, true);
+    }
+
+    /** The operation kept by a capture(name) Bench, or null if no benchmark has that name. */
+    public Op captured() {
+        return captured;
+    }
+
+    /**
+     * Runs a single-threaded benchmark. Each call of op counts as opsPerCall operations
+     * (use this for batch operations, so results are per row).
+     */
+    public void run(String name, int opsPerCall, double maxBytesPerOp, Op op) {
+        if (!selected(name)) {
+            return;
+        }
+        if (capturing) {
+            captured = op;
+            return;
+        }
+        loop(op, warmupMillis);
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long calls = loop(op, measureMillis);
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long ops = calls * opsPerCall;
+        report(new Result(name, 1, (double) elapsed / ops, ops * 1e9 / elapsed, (double) bytes / ops, maxBytesPerOp));
+    }
+
+    /**
+     * Runs the same operation on several threads at once and reports combined throughput.
+     * ns/op is per thread; B/op is averaged over all threads.
+     */
+    public void runThreads(String name, int threads, Op op) {
+        if (!selected(name)) {
+            return;
+        }
+        if (capturing) {
+            captured = op; // JMH picks the thread count (-t)
+            return;
+        }
+        LongAdder calls = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                loop(op, warmupMillis);
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long threadId = Thread.currentThread().getId();
+                long before = THREADS.getThreadAllocatedBytes(threadId);
+                calls.add(loop(op, measureMillis));
+                bytes.add(THREADS.getThreadAllocatedBytes(threadId) - before);
+            }, "bench-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        try {
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            long ops = calls.sum();
+            report(new Result(name, threads, (double) elapsed * threads / ops, ops * 1e9 / elapsed,
+                (double) bytes.sum() / ops, -1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Calls op repeatedly for about the given time; returns the number of calls
+    private static long loop(Op op, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long calls = 0;
+        int local = 0;
+        do {
+            // Check the clock every 64 calls so timing doesn't dominate tiny operations
+            for (int i = 0; i < 64; i++) {
+                Object value = op.run();
+                local += value == null ? 0 : value.hashCode();
+            }
+            calls += 64;
+        } while (System.nanoTime() < deadline);
+        sink += local;
+        return calls;
+    }
+
+    /** True when the name filter lets this benchmark run (or, capturing, it is the one wanted). */
+    public boolean selected(String name) {
+        if (capturing) {
+            return captured == null && name.equals(filter);
+        }
+        return filter == null || name.contains(filter);
+    }
+
+    private void report(Result result) {
+        results.add(result);
+        System.out.printf("%-36s %3d thr %12.1f ns/op %14.0f ops/s %10.1f B/op%s%n",
+            result.name, result.threads, result.nanosPerOp, result.opsPerSecond, result.bytesPerOp,
+            result.overBudget() ? String.format("   OVER BUDGET (max %.1f)", result.maxBytesPerOp) : "");
+    }
+
+    /** Records a wrong result seen by a benchmark; check() then fails the run. */
+    public void fail(String name, String problem) {
+        failures.add(name + ": " + problem);
+    }
+
+    /**
+     * Returns false (and prints which ones) if any benchmark allocated more than its budget
+     * or reported a wrong result.
+     */
+    public boolean check() {
+        boolean ok = true;
+        for (String failure : failures) {
+            System.out.println("Wrong result: " + failure);
+            ok = false;
+        }
+        for (Result result : results) {
+            if (result.overBudget()) {
+                System.out.printf("Allocation regression: %s allocates %.1f B/op (budget %.1f)%n",
+                    result.name, result.bytesPerOp, result.maxBytesPerOp);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,201 @@
+// Import for sending check-ins
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.time.Duration;
+import java.util.Arrays;
+// Import for the simulated stations
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Load generator for AttendanceServer.
+ *
+ * Simulates many check-in stations posting to POST /api/attendance at the
+ * same time. Each station sends its next check-in as soon as the previous
+ * one is answered. Prints throughput, latency percentiles and the count of
+ * each status code (503 means the server pushed back).
+ *
+ * Usage: benchmarks/loadtest.sh [http://host:port] [--stations N] [--seconds S] [--warmup S]
+ * Without a URL an in-process server with a temporary journal is started;
+ * the journal is deleted again when the run ends.
+ */
+public class CheckInLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int stations = 1000;
+        int seconds = 10;
+        int warmup = 3;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stations":
+                    stations = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    url = args[i];
+            }
+        }
+
+        AutoCloseable embedded = null;
+        if (url == null) {
+            Path directory = Files.createTempDirectory("attendance-load");
+            AttendanceJournal journal = AttendanceJournal.open(directory);
+            AttendanceIndex index = new AttendanceIndex();
+            AttendancePipeline pipeline = new AttendancePipeline(journal, AttendanceServer.DEFAULT_QUEUE_CAPACITY,
+                AttendancePipeline.DEFAULT_MAX_BATCH, Runnable::run);
+            pipeline.addCommitListener(index::add);
+            AttendanceRollups rollups = AttendanceRollups.attach(directory, pipeline).join();
+            AttendanceServer server = AttendanceServer.start(new InetSocketAddress("127.0.0.1", 0), pipeline, index,
+                rollups, ESignatureGenerator.fromSystemProperties(), null);
+            url = "http://127.0.0.1:" + server.getPort();
+            embedded = () -> {
+                server.close();
+                pipeline.close();
+                rollups.close();
+                journal.close();
+                deleteDirectory(directory);
+            };
+            System.out.println("Started embedded server at " + url + " (journal in " + directory + ")");
+        }
+
+        try {
+            System.out.printf("%d stations, %d s warm-up, %d s measured%n", stations, warmup, seconds);
+            run(URI.create(url).resolve("/api/attendance"), stations, warmup, false);
+            Result result = run(URI.create(url).resolve("/api/attendance"), stations, seconds, true);
+            result.print(seconds);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.exit(0); // HttpClient selector threads are not daemons
+    }
+
+    // Deletes the embedded server's temporary journal (segments, lock file, roll-ups)
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // Runs all stations for the given time; returns the measurements when measuring
+    private static Result run(URI endpoint, int stations, int seconds, boolean measure) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        ExecutorService threads = AttendanceServer.newRequestExecutor(stations);
+        Result result = new Result(stations);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch finished = new CountDownLatch(stations);
+        for (int s = 0; s < stations; s++) {
+            int station = s;
+            threads.execute(() -> {
+                try {
+                    Station latencies = result.stations[station];
+                    int sequence = 0;
+                    while (System.nanoTime() < deadline) {
+                        String form = "name=Student+" + station + "-" + sequence++ + "&courseYear=BSIT-" + (station % 4 + 1);
+                        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                            .timeout(Duration.ofSeconds(30))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(form))
+                            .build();
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = 0;
+                        }
+                        if (measure) {
+                            latencies.add(System.nanoTime() - start, status);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        threads.shutdown();
+        return result;
+    }
+
+    // ===== Measurements =====
+
+    // Latencies and status classes of one station; written by that station's thread only
+    private static final class Station {
+        long[] nanos = new long[1024];
+        int count;
+        final long[] statuses = new long[6]; // Index = status / 100 (0 = connection error)
+
+        void add(long latency, int status) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            statuses[Math.min(status / 100, 5)]++;
+        }
+    }
+
+    private static final class Result {
+        final Station[] stations;
+
+        Result(int count) {
+            stations = new Station[count];
+            for (int i = 0; i < count; i++) {
+                stations[i] = new Station();
+            }
+        }
+
+        void print(int seconds) {
+            int total = 0;
+            long[] statuses = new long[6];
+            for (Station station : stations) {
+                total += station.count;
+                for (int i = 0; i < statuses.length; i++) {
+                    statuses[i] += station.statuses[i];
+                }
+            }
+            long[] all = new long[total];
+            int at = 0;
+            for (Station station : stations) {
+                System.arraycopy(station.nanos, 0, all, at, station.count);
+                at += station.count;
+            }
+            Arrays.sort(all);
+            System.out.printf("Requests: %d (%.0f/s)%n", total, (double) total / seconds);
+            System.out.printf("Status:   2xx %d | 4xx %d | 5xx %d | failed %d%n",
+                statuses[2], statuses[4], statuses[5], statuses[0]);
+            if (total > 0) {
+                System.out.printf("Latency:  p50 %.2f ms | p90 %.2f ms | p99 %.2f ms | p99.9 %.2f ms | max %.2f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    percentile(all, 0.999), all[total - 1] / 1e6);
+            }
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
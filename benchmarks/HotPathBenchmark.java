@@ -0,0 +1,603 @@
+// Import for the CSV benchmarks
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+// Import for the rendering benchmarks
+import javax.swing.JLabel;
+// Import for the time-in and e-signature benchmarks
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.UUID;
+// Import for the roll-up benchmarks
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+// Import for the concurrent index benchmark
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+// Import for handing operations to JMH
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the hot paths of both apps:
+ * - Calculator grade computation: one student at a time vs. whole rosters
+ *   (scalar, SIMD and fork/join)
+ * - Calculator result rendering: String.format + HTML labels (before) vs. ResultView
+ * - app's "yyyy-MM-dd HH:mm:ss" Time In formatting, DateTimeFormatter vs. TimeInClock
+ * - app's UUID.randomUUID() E-Signature generation and each ESignatureGenerator mode
+ * - CSV parsing: BufferedReader + Double.parseDouble vs. CsvChunkReader
+ * - Login with 100k accounts: linear scan (web version) vs. CredentialStore
+ * - Metrics: histogram recording, and instrumented grading with metrics off
+ * - End-of-day report and absents: AttendanceIndex scans (before) vs. AttendanceRollups
+ * - Repeat check-in detection: exact index lookup vs. the DuplicateFilter
+ * - AttendanceIndex queries while the writer adds late rows (also checks the results)
+ *
+ * Run with benchmarks/run.sh [filter] [--quick]. The run fails when a
+ * benchmark allocates more than its budget (grading must stay garbage-free)
+ * or gets a wrong result. The Maven build runs the same operations under
+ * JMH (jmh/HotPathJmh, see benchmarks/pom.xml) through operation(name).
+ */
+public class HotPathBenchmark {
+
+    // Rows per call for the roster benchmarks
+    private static final int BATCH_ROWS = 4096;
+    private static final int PARALLEL_ROWS = 1 << 20;
+    private static final int CSV_ROWS = 65536;
+    private static final int ACCOUNTS = 100_000;
+    private static final int CHECK_INS = 100_000;
+    private static final int INDEX_ROWS = 400_000;
+
+    public static void main(String[] args) {
+        String filter = null;
+        boolean quick = false;
+        for (String arg : args) {
+            if (arg.equals("--quick")) {
+                quick = true;
+            } else {
+                filter = arg;
+            }
+        }
+        Bench bench = quick ? new Bench(1000, 500, filter) : new Bench(2000, 3000, filter);
+        System.out.println("Vector API: " + (ParallelGradeEngine.isVectorAvailable() ? "available" : "not available"));
+
+        runAll(bench);
+        if (!bench.check()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Builds the fixtures of the benchmark with this exact name and returns its operation
+     * without running it. Throws IllegalArgumentException when there is no such benchmark.
+     */
+    public static Supplier<Object> operation(String name) {
+        Bench bench = Bench.capture(name);
+        runAll(bench);
+        Bench.Op op = bench.captured();
+        if (op == null) {
+            throw new IllegalArgumentException("No benchmark named \"" + name + "\"");
+        }
+        return op::run;
+    }
+
+    private static void runAll(Bench bench) {
+        gradeBenchmarks(bench);
+        renderBenchmarks(bench);
+        attendanceBenchmarks(bench);
+        csvBenchmarks(bench);
+        loginBenchmarks(bench);
+        metricsBenchmarks(bench);
+        rollupBenchmarks(bench);
+        dedupBenchmarks(bench);
+        indexBenchmarks(bench);
+    }
+
+    // ===== Grade computation =====
+
+    private static void gradeBenchmarks(Bench bench) {
+        GradeRoster single = new GradeRoster(1);
+        single.add(85, 90.5, 78, 2);
+        bench.run("grade.single", 1, 0, () -> {
+            GradeEngine.grade(single, 0, 1);
+            return single.requiredToPass[0] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+
+        GradeRoster batch = randomRoster(BATCH_ROWS);
+        bench.run("grade.batch.scalar (per row)", BATCH_ROWS, 0, () -> {
+            GradeEngine.grade(batch, 0, BATCH_ROWS);
+            return batch.requiredToPass[BATCH_ROWS - 1] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+        bench.run("grade.batch.vector (per row)", BATCH_ROWS, 0, () -> {
+            ParallelGradeEngine.gradeVectorized(batch, 0, BATCH_ROWS);
+            return batch.requiredToPass[BATCH_ROWS - 1] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+
+        GradeRoster large = randomRoster(PARALLEL_ROWS);
+        // Fork/join tasks are small objects, so allow a little garbage per row
+        bench.run("grade.batch.parallel (per row)", PARALLEL_ROWS, 0.1, () -> {
+            ParallelGradeEngine.grade(large, 0, PARALLEL_ROWS);
+            return large.requiredToPass[PARALLEL_ROWS - 1] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+    }
+
+    // ===== Result rendering =====
+
+    private static void renderBenchmarks(Bench bench) {
+        double[] values = { 44.46, 146.26, 229.59, 61.12, 83.33, 88.0 };
+        int[] index = { 0 };
+        bench.run("render.html (String.format)", 1, -1, () -> {
+            int i = index[0]++ & 1;
+            String result = resultHtml(values[4 + i], values[5 - i], values[i]);
+            String required = requiredHtml(values[1 + i], values[2 + i], values[3 - i]);
+            return result.length() + required.length();
+        });
+
+        // What the EDT does per update. Two students are shown in turn, so
+        // the text always changes (the same text again would be free); both
+        // get the same colors, since a color change costs a repaint either way.
+        GradeRoster students = new GradeRoster(2);
+        students.add(85, 90.5, 78, 2);
+        students.add(60, 72.25, 81, 3);
+        students.grade();
+        double[] attendance = { GradeEngine.attendance(2), GradeEngine.attendance(3) };
+        double[] labAverage = { GradeEngine.labWorkAverage(85, 90.5, 78), GradeEngine.labWorkAverage(60, 72.25, 81) };
+
+        // After: prebuilt labels, text from the LRU cache
+        ResultView cached = new ResultView();
+        bench.run("render.edt.resultView (cache hit)", 1, -1, () -> {
+            int i = index[0]++ & 1;
+            cached.showResult(attendance[i], labAverage[i], students.classStanding[i],
+                students.requiredToPass[i], students.requiredFor100[i], students.maxPossibleGrade[i]);
+            return cached.getCacheHits();
+        });
+
+        // After, every result new: plain-text formatting but no HTML
+        GradeRoster distinct = randomRoster(ResultView.CACHE_SIZE * 4);
+        distinct.grade();
+        ResultView missing = new ResultView();
+        bench.run("render.edt.resultView (cache miss)", 1, -1, () -> {
+            int i = index[0]++ % distinct.size();
+            missing.showResult(GradeEngine.attendance(distinct.absents[i]),
+                GradeEngine.labWorkAverage(distinct.lab1[i], distinct.lab2[i], distinct.lab3[i]),
+                distinct.classStanding[i], distinct.requiredToPass[i], distinct.requiredFor100[i],
+                distinct.maxPossibleGrade[i]);
+            return missing.getCacheMisses();
+        });
+
+        // Before: HTML strings that Swing parses on every setText (run last, so
+        // the HTML parser doesn't skew the JIT's view of the plain-label runs)
+        JLabel resultLabel = new JLabel();
+        JLabel requiredLabel = new JLabel();
+        bench.run("render.edt.htmlLabels (before)", 1, -1, () -> {
+            int i = index[0]++ & 1;
+            resultLabel.setText(resultHtml(attendance[i], labAverage[i], students.classStanding[i]));
+            requiredLabel.setText(requiredHtml(students.requiredToPass[i], students.requiredFor100[i],
+                students.maxPossibleGrade[i]));
+            return resultLabel.getText().length();
+        });
+    }
+
+    // The HTML the Calculator built before ResultView (kept as the baseline)
+    static String resultHtml(double attendance, double labWorkAverage, double classStanding) {
+        return String.format(
+            "<html><center>" +
+            "Attendance Score: %.2f<br>" +
+            "Lab Work Average: %.2f<br>" +
+            "Class Standing: %.2f" +
+            "</center></html>",
+            attendance, labWorkAverage, classStanding
+        );
+    }
+
+    static String requiredHtml(double requiredToPass, double requiredFor100, double maxPossibleGrade) {
+        String passStatus;
+        if (requiredToPass > 100) {
+            passStatus = String.format("<font color='red'>Cannot pass (need %.2f)</font>", requiredToPass);
+        } else if (requiredToPass <= 0) {
+            passStatus = "<font color='green'>ALREADY PASSING! (need 0 or less)</font>";
+        } else {
+            passStatus = String.format("<font color='blue'>%.2f</font>", requiredToPass);
+        }
+        String perfectStatus;
+        if (requiredFor100 > 100) {
+            perfectStatus = String.format("<font color='orange'>Need %.2f (Max grade: %.2f)</font>", requiredFor100, maxPossibleGrade);
+        } else if (requiredFor100 <= 0) {
+            perfectStatus = String.format("<font color='green'>GUARANTEED! (Max grade: %.2f)</font>", maxPossibleGrade);
+        } else {
+            perfectStatus = String.format("<font color='blue'>%.2f (Max grade: %.2f)</font>", requiredFor100, maxPossibleGrade);
+        }
+        return String.format(
+            "<html><center>" +
+            "<b>Required Prelim Exam Score:</b><br>" +
+            "To Pass (75): %s<br>" +
+            "For Perfect (100): %s" +
+            "</center></html>",
+            passStatus, perfectStatus
+        );
+    }
+
+    // ===== app: Time In and E-Signature =====
+
+    private static void attendanceBenchmarks(Bench bench) {
+        // Same formatter and steps as app's Clear button
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        ZoneId zone = ZoneId.systemDefault();
+        bench.run("timein.format (DateTimeFormatter)", 1, -1, () ->
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(System.currentTimeMillis()), zone).format(formatter));
+
+        // TimeInClock: cached String per second, and digits written into a reused buffer
+        TimeInClock clock = new TimeInClock(zone);
+        bench.run("timein.clock.format (String)", 1, -1, () -> clock.format(clock.now()));
+        char[] chars = new char[TimeInClock.LENGTH];
+        bench.run("timein.clock.formatTo (char[])", 1, 0, () -> clock.formatTo(clock.now(), chars, 0) + chars[18]);
+        byte[] bytes = new byte[TimeInClock.LENGTH];
+        bench.run("timein.clock.formatTo (byte[])", 1, 0, () -> clock.formatTo(clock.now(), bytes, 0) + bytes[18]);
+
+        bench.run("esignature.uuid (randomUUID)", 1, -1, () -> UUID.randomUUID().toString());
+        bench.runThreads("esignature.uuid (randomUUID)", 4, () -> UUID.randomUUID().toString());
+
+        // Each ESignatureGenerator mode, alone and with 4 threads signing at once
+        String[] modes = { "random", "v7", "hmac" };
+        for (String mode : modes) {
+            ESignatureGenerator generator = mode.equals("hmac")
+                ? new HmacESignatureGenerator("benchmark-key".getBytes(java.nio.charset.StandardCharsets.UTF_8))
+                : ESignatureGenerator.forMode(mode);
+            long timeIn = System.currentTimeMillis();
+            bench.run("esignature." + mode, 1, -1, () -> generator.next("Juan Dela Cruz", "BSIT-2", timeIn));
+            bench.runThreads("esignature." + mode, 4, () -> generator.next("Juan Dela Cruz", "BSIT-2", timeIn));
+        }
+    }
+
+    // ===== CSV parsing =====
+
+    private static void csvBenchmarks(Bench bench) {
+        Path file;
+        try {
+            file = Files.createTempFile("grade-bench", ".csv");
+            file.toFile().deleteOnExit();
+            StringBuilder csv = new StringBuilder("name,course,lab1,lab2,lab3,absents\n");
+            Random random = new Random(11);
+            for (int i = 0; i < CSV_ROWS; i++) {
+                csv.append("Student ").append(i).append(",BSIT-").append(i % 4).append(',')
+                    .append(random.nextInt(101)).append(',')
+                    .append(random.nextInt(10000) / 100.0).append(',')
+                    .append(random.nextInt(101)).append(',')
+                    .append(random.nextInt(15)).append('\n');
+            }
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // How GradeBatch used to read rows: one String per line, substrings per field
+        bench.run("csv.parse.bufferedReader (per row)", CSV_ROWS, -1, () -> {
+            double sum = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                reader.readLine();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int c2 = line.indexOf(',', line.indexOf(',') + 1);
+                    int c3 = line.indexOf(',', c2 + 1);
+                    int c4 = line.indexOf(',', c3 + 1);
+                    int c5 = line.indexOf(',', c4 + 1);
+                    sum += Double.parseDouble(line.substring(c2 + 1, c3))
+                        + Double.parseDouble(line.substring(c3 + 1, c4))
+                        + Double.parseDouble(line.substring(c4 + 1, c5))
+                        + Integer.parseInt(line.substring(c5 + 1));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return sum;
+        });
+
+        // Only the reader's buffers are allocated, once per file, not per row
+        bench.run("csv.parse.chunkReader (per row)", CSV_ROWS, 16, () -> {
+            double sum = 0;
+            try (CsvChunkReader reader = new CsvChunkReader(file, 1 << 16)) {
+                reader.next();
+                while (reader.next()) {
+                    sum += reader.parseDouble(2) + reader.parseDouble(3) + reader.parseDouble(4) + reader.parseInt(5);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return sum;
+        });
+    }
+
+    // ===== Login =====
+
+    private static void loginBenchmarks(Bench bench) {
+        String linearScan = "login.linearScan (100k plaintext)";
+        String lookup = "login.lookup (100k accounts)";
+        String cached = "login.verify.cached (100k accounts)";
+        String full = "login.verify.full (PBKDF2)";
+        if (!bench.selected(linearScan) && !bench.selected(lookup) && !bench.selected(cached) && !bench.selected(full)) {
+            return; // Building 100k accounts takes a while
+        }
+        // The web version: plaintext accounts searched front to back
+        String[][] plain = new String[ACCOUNTS][];
+        // One PBKDF2 iteration while building: the lookup and cached paths don't depend on it
+        CredentialStore store = new CredentialStore(1);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            plain[i] = new String[] { "student" + i, "pass" + i };
+            store.put("student" + i, ("pass" + i).toCharArray());
+        }
+        Random random = new Random(3);
+        String[] users = new String[4096];
+        char[][] passwords = new char[users.length][];
+        for (int i = 0; i < users.length; i++) {
+            int account = random.nextInt(ACCOUNTS);
+            users[i] = "student" + account;
+            passwords[i] = ("pass" + account).toCharArray();
+        }
+        int[] next = { 0 };
+
+        bench.run(linearScan, 1, -1, () -> {
+            int i = next[0]++ & (users.length - 1);
+            String password = new String(passwords[i]);
+            for (String[] account : plain) {
+                if (account[0].equals(users[i]) && account[1].equals(password)) {
+                    return account;
+                }
+            }
+            return null;
+        });
+        bench.run(lookup, 1, 0, () -> store.contains(users[next[0]++ & (users.length - 1)]));
+
+        // Repeated check-ins: the first verify fills the cache, the rest hit it
+        for (int i = 0; i < users.length; i++) {
+            store.verify(users[i], passwords[i]);
+        }
+        bench.run(cached, 1, -1, () -> {
+            int i = next[0]++ & (users.length - 1);
+            return store.verify(users[i], passwords[i]);
+        });
+
+        // A first check-in pays the full PBKDF2 cost (wrong passwords are never cached)
+        CredentialStore slow = new CredentialStore();
+        slow.put("student", "secret".toCharArray());
+        char[] wrong = "wrong".toCharArray();
+        bench.run(full, 1, -1,
+            () -> slow.verify("student", wrong));
+    }
+
+    // ===== Metrics =====
+
+    private static void metricsBenchmarks(Bench bench) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] latency = { 1 };
+        bench.run("metrics.histogram.record", 1, 0, () -> {
+            latency[0] = latency[0] * 31 + 7 & 0xFFFFFFF;   // Spread over many buckets
+            histogram.record(latency[0]);
+            return latency[0] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+        bench.runThreads("metrics.histogram.record", 4, () -> {
+            histogram.record(System.nanoTime() & 0xFFFFF);
+            return Boolean.TRUE;
+        });
+
+        // GradeRoster.grade() is instrumented; without -Dmetrics=true it should
+        // cost the same as the same call made directly
+        GradeRoster single = new GradeRoster(1);
+        single.add(85, 90.5, 78, 2);
+        bench.run("grade.roster (direct, no metrics)", 1, 0, () -> {
+            GradeEngine.grade(single, 0, single.size());
+            return single.requiredToPass[0] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+        bench.run("grade.roster (instrumented, metrics " + (Metrics.ENABLED ? "on)" : "off)"), 1, 0, () -> {
+            single.grade();
+            return single.requiredToPass[0] > 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+    }
+
+    // ===== Attendance roll-ups =====
+
+    private static void rollupBenchmarks(Bench bench) {
+        String reportScan = "report.day.indexScan (100k records, before)";
+        String reportRollups = "report.day.rollups (100k records)";
+        String absentsScan = "absents.indexScan (100k records, before)";
+        String absentsRollups = "absents.rollups (100k records)";
+        String add = "rollups.add";
+        if (!bench.selected(reportScan) && !bench.selected(reportRollups) && !bench.selected(absentsScan)
+                && !bench.selected(absentsRollups) && !bench.selected(add)) {
+            return;
+        }
+        // 20 courses of 40 students, checking in on 60 school days around 07:00-09:00
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate firstDay = LocalDate.of(2026, 8, 3);
+        Random random = new Random(11);
+        AttendanceRecord[] records = new AttendanceRecord[CHECK_INS];
+        for (int i = 0; i < records.length; i++) {
+            int day = i * 60 / records.length;
+            long timeIn = firstDay.plusDays(day).atTime(7, 0).atZone(zone).toInstant().toEpochMilli()
+                + random.nextInt(2 * 3600_000);
+            records[i] = new AttendanceRecord("Student " + random.nextInt(40), "BSIT-" + random.nextInt(20), timeIn,
+                new UUID(i, i));
+        }
+        AttendanceIndex index = new AttendanceIndex();
+        AttendanceRollups rollups;
+        try {
+            rollups = AttendanceRollups.open(Files.createTempDirectory("bench-rollups"), zone,
+                AttendanceRollups.DEFAULT_LATE_AFTER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (AttendanceRecord record : records) {
+            index.add(record);
+            rollups.add(record);
+        }
+        LocalDate reportDay = firstDay.plusDays(30);
+        long dayStart = reportDay.atStartOfDay(zone).toInstant().toEpochMilli();
+        long dayEnd = reportDay.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long lateAfter = reportDay.atTime(AttendanceRollups.DEFAULT_LATE_AFTER).atZone(zone).toInstant().toEpochMilli();
+
+        // Headcount, check-ins and late arrivals per course for one day
+        bench.run(reportScan, 1, -1, () -> {
+            Map<String, Set<String>> present = new TreeMap<>();
+            Map<String, int[]> totals = new HashMap<>();
+            index.scan(null, null, dayStart, dayEnd, row -> {
+                AttendanceRecord record = index.record(row);
+                present.computeIfAbsent(record.getCourseYear(), c -> new HashSet<>())
+                    .add(record.getName().toLowerCase(Locale.ROOT));
+                int[] counts = totals.computeIfAbsent(record.getCourseYear(), c -> new int[2]);
+                counts[0]++;
+                if (record.getTimeInMillis() > lateAfter) {
+                    counts[1]++;
+                }
+                return true;
+            });
+            return present;
+        });
+        bench.run(reportRollups, 1, -1, () -> rollups.days(null, reportDay, reportDay));
+
+        // Absents of one student: days the course met minus days present
+        String[] names = { "Student 3", "Student 17", "Student 29", "Student 38" };
+        int[] next = { 0 };
+        bench.run(absentsScan, 1, -1, () -> {
+            String name = names[next[0]++ & 3];
+            Set<LocalDate> met = new HashSet<>();
+            Set<LocalDate> attended = new HashSet<>();
+            index.scan(null, "BSIT-7", Long.MIN_VALUE, Long.MAX_VALUE, row -> {
+                AttendanceRecord record = index.record(row);
+                LocalDate day = Instant.ofEpochMilli(record.getTimeInMillis()).atZone(zone).toLocalDate();
+                met.add(day);
+                if (record.getName().equalsIgnoreCase(name)) {
+                    attended.add(day);
+                }
+                return true;
+            });
+            return met.size() - attended.size() >= 0 ? Boolean.TRUE : Boolean.FALSE;
+        });
+        bench.run(absentsRollups, 1, -1, () ->
+            rollups.absents("BSIT-7", names[next[0]++ & 3]) >= 0 ? Boolean.TRUE : Boolean.FALSE);
+
+        // Cost the pipeline's writer thread pays per saved record
+        int[] position = { 0 };
+        bench.run(add, 1, -1, () -> {
+            rollups.add(records[position[0]++ % records.length]);
+            return Boolean.TRUE;
+        });
+    }
+
+    private static void dedupBenchmarks(Bench bench) {
+        String exact = "dedup.indexCheck (100k records, new check-in)";
+        String fresh = "dedup.mightContain (100k records, new check-in)";
+        String repeat = "dedup.mightContain+isSaved (repeat)";
+        String add = "dedup.add";
+        if (!bench.selected(exact) && !bench.selected(fresh) && !bench.selected(repeat) && !bench.selected(add)) {
+            return;
+        }
+        // 100k students in 50 courses who all checked in today
+        ZoneId zone = ZoneId.systemDefault();
+        long todayStart = LocalDate.now(zone).atStartOfDay(zone).toInstant().toEpochMilli();
+        Random random = new Random(13);
+        AttendanceIndex index = new AttendanceIndex();
+        DuplicateFilter filter = new DuplicateFilter(index, zone, DuplicateFilter.DEFAULT_WINDOW,
+            DuplicateFilter.DEFAULT_EXPECTED_KEYS);
+        AttendanceRecord[] saved = new AttendanceRecord[CHECK_INS];
+        AttendanceRecord[] unseen = new AttendanceRecord[CHECK_INS];
+        for (int i = 0; i < saved.length; i++) {
+            String course = "BSIT-" + (i % 50);
+            saved[i] = new AttendanceRecord("Student " + i, course, todayStart + random.nextInt(86_400_000),
+                new UUID(i, i));
+            unseen[i] = new AttendanceRecord("Visitor " + i, course, todayStart + random.nextInt(86_400_000),
+                new UUID(i, -i));
+            index.add(saved[i]);
+            filter.add(saved[i]);
+        }
+
+        // What the writer's repeat check costs for a check-in that is not a repeat, with and without the filter
+        int[] position = { 0 };
+        bench.run(exact, 1, -1, () -> {
+            AttendanceRecord record = unseen[position[0]++ % unseen.length];
+            return index.contains(record.getName(), record.getCourseYear(), todayStart, todayStart + 86_400_000L)
+                ? Boolean.TRUE : Boolean.FALSE;
+        });
+        bench.run(fresh, 1, 0, () ->
+            filter.mightContain(unseen[position[0]++ % unseen.length]) ? Boolean.TRUE : Boolean.FALSE);
+        bench.run(repeat, 1, -1, () -> {
+            AttendanceRecord record = saved[position[0]++ % saved.length];
+            return filter.mightContain(record) && filter.isSaved(record) ? Boolean.TRUE : Boolean.FALSE;
+        });
+
+        // Cost the pipeline's writer thread pays per record
+        bench.run(add, 1, 0, () -> filter.add(saved[position[0]++ % saved.length]) ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    // ===== Attendance index under concurrent adds =====
+
+    private static void indexBenchmarks(Bench bench) {
+        String name = "index.scan during add";
+        if (!bench.selected(name)) {
+            return;
+        }
+        // The writer adds check-ins mostly in time order, with 1 in 4 up to a minute late,
+        // so both sort orders keep getting unsorted rows while the readers query
+        AttendanceIndex index = new AttendanceIndex();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(17);
+            for (int i = 0; i < INDEX_ROWS && !stop.get(); i++) {
+                long timeIn = i * 10L - (random.nextInt(4) == 0 ? random.nextInt(60_000) : 0);
+                index.add(new AttendanceRecord("s" + Integer.toString(random.nextInt(1 << 20), 36), "BSIT-2",
+                    timeIn, new UUID(i, i)));
+            }
+        }, "index-writer");
+        writer.start();
+
+        // Each query must see its rows in order, and at least every row added before it started
+        AtomicLong wrong = new AtomicLong();
+        bench.runThreads(name, 2, () -> {
+            int before = index.size();
+            long[] lastTime = { Long.MIN_VALUE };
+            boolean[] ordered = { true };
+            int visited = index.scan(null, null, Long.MIN_VALUE, Long.MAX_VALUE, row -> {
+                long timeIn = index.timeIn(row);
+                ordered[0] &= timeIn >= lastTime[0];
+                lastTime[0] = timeIn;
+                return true;
+            });
+            String[] lastName = { "" };
+            index.scan("s1", null, Long.MIN_VALUE, Long.MAX_VALUE, row -> {
+                String rowName = index.name(row);
+                ordered[0] &= rowName.compareTo(lastName[0]) >= 0;
+                lastName[0] = rowName;
+                return true;
+            });
+            if (!ordered[0] || visited < before) {
+                wrong.incrementAndGet();
+            }
+            return visited;
+        });
+        stop.set(true);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (wrong.get() > 0) {
+            bench.fail(name, wrong.get() + " queries saw rows out of order or missing");
+        }
+    }
+
+    private static GradeRoster randomRoster(int rows) {
+        Random random = new Random(7);
+        GradeRoster roster = new GradeRoster(rows);
+        for (int i = 0; i < rows; i++) {
+            roster.add(random.nextInt(101), random.nextDouble() * 100, random.nextInt(101), random.nextInt(15));
+        }
+        return roster;
+    }
+}
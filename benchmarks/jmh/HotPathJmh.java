@@ -0,0 +1,71 @@
+package jmh;
+
+// Import for the JMH annotations
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+// Import for looking up the operations
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The HotPathBenchmark operations under JMH.
+ * JMH refuses benchmark classes in the default package, and a named package
+ * can't refer to the apps' classes, so each operation (with its fixtures) is
+ * fetched once per fork from HotPathBenchmark.operation(name) by reflection;
+ * the call site stays monomorphic, so the JIT inlines it as usual.
+ *
+ * Run with -prof gc for gc.alloc.rate.norm (bytes allocated per operation):
+ *   java -jar benchmarks/target/benchmarks.jar -prof gc
+ *   java -jar benchmarks/target/benchmarks.jar -prof gc -p "benchmark=esignature.v7"
+ * Any name printed by benchmarks/run.sh can be given with -p. Results are per
+ * call: the "(per row)" ones process a whole roster or file per call.
+ * "index.scan during add" needs its writer thread and only runs in run.sh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true" })
+public class HotPathJmh {
+
+    // The ones run.sh holds to an allocation budget
+    @Param({
+        "grade.single",
+        "grade.batch.scalar (per row)",
+        "grade.batch.vector (per row)",
+        "grade.roster (direct, no metrics)",
+        "timein.clock.formatTo (char[])",
+        "timein.clock.formatTo (byte[])",
+        "csv.parse.chunkReader (per row)",
+        "login.lookup (100k accounts)",
+        "metrics.histogram.record",
+        "dedup.mightContain (100k records, new check-in)",
+        "dedup.add",
+    })
+    public String benchmark;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        operation = (Supplier<Object>) Class.forName("HotPathBenchmark")
+            .getMethod("operation", String.class)
+            .invoke(null, benchmark);
+    }
+
+    @Benchmark
+    public Object run() {
+        return operation.get();
+    }
+}
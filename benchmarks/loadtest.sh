@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles the attendance app and the benchmarks into out/bench, then runs the
+# check-in load generator (against an in-process server unless a URL is given).
+# Usage: benchmarks/loadtest.sh [http://host:port] [--stations N] [--seconds S] [--warmup S]
+set -e
+cd "$(dirname "$0")/.."
+
+rm -rf out/bench
+mkdir -p out/bench
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d out/bench \
+    *.java PRELIMS_LABWORK_3/JAVA/*.java benchmarks/*.java
+java -Djava.awt.headless=true -cp out/bench CheckInLoadGenerator "$@"
@@ -0,0 +1,11 @@
+#!/bin/sh
+# Compiles both apps and the benchmarks into out/bench, then runs them.
+# Usage: benchmarks/run.sh [name-filter] [--quick]
+set -e
+cd "$(dirname "$0")/.."
+
+rm -rf out/bench
+mkdir -p out/bench
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d out/bench \
+    *.java PRELIMS_LABWORK_3/JAVA/*.java benchmarks/*.java
+java --add-modules jdk.incubator.vector -Djava.awt.headless=true -cp out/bench HotPathBenchmark "$@"
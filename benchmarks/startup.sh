@@ -0,0 +1,57 @@
+#!/bin/sh
+# Builds the kiosk jar and AppCDS archives (../build-kiosk.sh), then launches
+# each app several times with and without its archive and prints the median
+# time to first frame and to ready (see StartupProbe).
+# The apps open their real windows; without a display it reruns under xvfb-run.
+# Usage: benchmarks/startup.sh [--runs N]
+set -e
+cd "$(dirname "$0")/.."
+if [ -z "$DISPLAY" ] && [ "$(uname)" = "Linux" ]; then
+    if ! command -v xvfb-run > /dev/null; then
+        echo "No display: run this on the kiosk, or install Xvfb (xvfb-run)" >&2
+        exit 1
+    fi
+    # One virtual display for every launch, so its own startup isn't timed
+    exec xvfb-run -a benchmarks/startup.sh "$@"
+fi
+
+RUNS=10
+if [ "$1" = "--runs" ]; then
+    RUNS=$2
+fi
+
+./build-kiosk.sh > /dev/null
+KIOSK="$(pwd)/out/kiosk"
+
+JOURNAL=$(mktemp -d)
+trap 'rm -rf "$JOURNAL"' EXIT
+
+# Prints "first-frame ready" in ms for one launch: launch <JVM option> <main class>
+launch() {
+    launched=$(date +%s%3N)
+    case $launched in
+        *N) launched="" ;; # No millisecond clock (BSD date): the probe uses the process start time
+    esac
+    java "$1" -Dstartup.probe=exit ${launched:+-Dstartup.launchedAt=$launched} \
+        -Dattendance.journal.dir="$JOURNAL" -cp "$KIOSK/prog2.jar" "$2" \
+        | sed -n 's/.*first frame after \([0-9]*\) ms, ready after \([0-9]*\) ms.*/\1 \2/p'
+}
+
+# Median of the numbers on stdin
+median() {
+    sort -n | awk '{ value[NR] = $1 } END { print value[int((NR + 1) / 2)] }'
+}
+
+for app in app Calculator; do
+    archive=$KIOSK/$(echo "$app" | tr 'A-Z' 'a-z').jsa
+    for mode in default cds; do
+        if [ "$mode" = cds ]; then
+            option="-XX:SharedArchiveFile=$archive"
+        else
+            option="-Xshare:auto" # JDK classes only (the JVM's default archive)
+        fi
+        results=$(i=0; while [ $i -lt "$RUNS" ]; do launch "$option" "$app"; i=$((i + 1)); done)
+        printf "%-11s %-8s first frame %5s ms   ready %5s ms   (median of %d)\n" "$app" "$mode" \
+            "$(echo "$results" | cut -d' ' -f1 | median)" "$(echo "$results" | cut -d' ' -f2 | median)" "$RUNS"
+    done
+done